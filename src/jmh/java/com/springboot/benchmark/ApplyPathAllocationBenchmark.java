@@ -0,0 +1,115 @@
+package com.springboot.benchmark;
+
+import com.springboot.CartOfferApplication;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.OfferRepository;
+import com.springboot.service.CartOfferService;
+import com.springboot.service.SegmentCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The apply_offer path as the application wires it, without the web layer: the
+ * {@link CartOfferService} bean prices prebuilt requests for users already in the
+ * {@link SegmentCache}, so the segment service is never called. With the profile's
+ * default gc profiler, gc.alloc.rate.norm of {@code applyOffer} is the response object
+ * alone, and of {@code matchAndDiscount} 0 B/op, on either offer store. One probe in
+ * eight misses the restaurant or has a user without a segment.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ApplyPathAllocationBenchmark {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+    private static final int PROBES = 1024;
+    private static final int FIRST_ID = 1_000_000;
+    private static final int RESTAURANTS = 1_000;
+
+    @Param({"heap", "off-heap"})
+    public String storeType;
+
+    private ConfigurableApplicationContext application;
+    private CartOfferService cartOfferService;
+    private OfferRepository offerRepository;
+    private ApplyOfferRequest[] requests;
+    private int[] segmentIds;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = new SpringApplicationBuilder(CartOfferApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--offer.store.type=" + storeType,
+                        "--segment.cache.max-size=" + PROBES,
+                        "--segment.cache.ttl-millis=" + TimeUnit.HOURS.toMillis(1),
+                        "--segment.cache.negative-ttl-millis=" + TimeUnit.HOURS.toMillis(1),
+                        "--logging.level.root=WARN");
+        cartOfferService = application.getBean(CartOfferService.class);
+        offerRepository = application.getBean(OfferRepository.class);
+        SegmentCache segmentCache = application.getBean(SegmentCache.class);
+
+        Random random = new Random(11);
+        List<CompiledOffer> offers = new ArrayList<>();
+        for (int i = 0; i < RESTAURANTS * 5; i++) {
+            offers.add(new CompiledOffer(FIRST_ID + i % RESTAURANTS, random.nextBoolean() ? OfferType.FLATX : OfferType.PERCENTAGE,
+                    1 + random.nextInt(50), SegmentRegistry.bitOf(random.nextInt(SegmentRegistry.SIZE))));
+        }
+        offerRepository.saveAll(offers);
+
+        requests = new ApplyOfferRequest[PROBES];
+        segmentIds = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            ApplyOfferRequest request = new ApplyOfferRequest();
+            request.setRestaurant_id(i % 8 == 7 ? FIRST_ID + RESTAURANTS + i : FIRST_ID + random.nextInt(RESTAURANTS));
+            request.setUser_id(FIRST_ID + i);
+            request.setCart_value(50 + random.nextInt(1_000));
+            requests[i] = request;
+            String segment = i % 8 == 6 ? null : SEGMENTS[random.nextInt(SEGMENTS.length)];
+            segmentIds[i] = SegmentRegistry.idOf(segment);
+            segmentCache.get(request.getUser_id(), userId -> segment);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public ApplyOfferResponse applyOffer() {
+        return cartOfferService.applyOffer(requests[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public int matchAndDiscount() {
+        int i = probe++ & (PROBES - 1);
+        return offerRepository.applyBestOffer(requests[i].getRestaurant_id(), segmentIds[i], requests[i].getCart_value());
+    }
+}
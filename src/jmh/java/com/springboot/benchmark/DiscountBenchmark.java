@@ -0,0 +1,69 @@
+package com.springboot.benchmark;
+
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discount computation for a matched offer, FLATX against PERCENTAGE.
+ * {@code stringDispatch} is the offer_type string comparison apply_offer did before
+ * offers were compiled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiscountBenchmark {
+
+    private static final int CARTS = 1024;
+
+    @Param({"FLATX", "PERCENTAGE"})
+    public String offerType;
+
+    private OfferRequest offer;
+    private CompiledOffer compiledOffer;
+    private int[] cartValues;
+    private int cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        offer = new OfferRequest(1, offerType, 15, Collections.singletonList("p1"));
+        compiledOffer = CompiledOffer.compile(offer);
+        Random random = new Random(42);
+        cartValues = new int[CARTS];
+        for (int i = 0; i < CARTS; i++) {
+            cartValues[i] = 50 + random.nextInt(5_000);
+        }
+    }
+
+    @Benchmark
+    public int compiledOffer() {
+        return compiledOffer.apply(cartValues[cart++ & (CARTS - 1)]);
+    }
+
+    @Benchmark
+    public int stringDispatch() {
+        int cartVal = cartValues[cart++ & (CARTS - 1)];
+        if (offer.getOffer_type().equals("FLATX")) {
+            return cartVal - offer.getOffer_value();
+        }
+        return (int) (cartVal - cartVal * offer.getOffer_value() * (0.01));
+    }
+}
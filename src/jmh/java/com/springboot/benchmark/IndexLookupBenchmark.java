@@ -0,0 +1,115 @@
+package com.springboot.benchmark;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.property.SegmentCacheProperty;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.service.SegmentCache;
+import com.springboot.util.IntObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by restaurant_id and user_id on the apply_offer path. Ids are drawn well
+ * above the Integer cache, so {@code boxedRestaurantLookup} boxes on every call; run with
+ * the default gc profiler and compare gc.alloc.rate.norm, which is 0 B/op for the
+ * int-keyed lookups and for {@code applyPathLookups}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class IndexLookupBenchmark {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+    private static final int PROBES = 1024;
+    private static final int FIRST_ID = 1_000_000;
+
+    @Param({"1000", "100000"})
+    public int restaurants;
+
+    private Map<Integer, Object> boxedIndex;
+    private IntObjectMap<Object> intIndex;
+    private InMemoryOfferRepository repository;
+    private SegmentCache segmentCache;
+    private int[] restaurantIds;
+    private int[] userIds;
+    private int[] cartValues;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Random random = new Random(42);
+        boxedIndex = new ConcurrentHashMap<>();
+        intIndex = new IntObjectMap<>();
+        List<CompiledOffer> offers = new ArrayList<>(restaurants);
+        for (int i = 0; i < restaurants; i++) {
+            int restaurantId = FIRST_ID + i;
+            Object value = new Object();
+            boxedIndex.put(restaurantId, value);
+            intIndex.put(restaurantId, value);
+            offers.add(new CompiledOffer(restaurantId, random.nextBoolean() ? OfferType.FLATX : OfferType.PERCENTAGE,
+                    1 + random.nextInt(50), SegmentRegistry.bitOf(random.nextInt(SegmentRegistry.SIZE))));
+        }
+        repository = new InMemoryOfferRepository();
+        repository.saveAll(offers);
+
+        SegmentCacheProperty property = new SegmentCacheProperty();
+        property.setMaxSize(PROBES);
+        property.setTtlMillis(TimeUnit.HOURS.toMillis(1));
+        segmentCache = new SegmentCache(property);
+
+        restaurantIds = new int[PROBES];
+        userIds = new int[PROBES];
+        cartValues = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            restaurantIds[i] = FIRST_ID + random.nextInt(restaurants);
+            userIds[i] = FIRST_ID + i;
+            cartValues[i] = 50 + random.nextInt(1_000);
+            segmentCache.get(userIds[i], userId -> SEGMENTS[userId % SEGMENTS.length]);
+        }
+    }
+
+    @Benchmark
+    public Object boxedRestaurantLookup() {
+        return boxedIndex.get(restaurantIds[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Object intRestaurantLookup() {
+        return intIndex.get(restaurantIds[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public String segmentCacheHit() {
+        return segmentCache.get(userIds[probe++ & (PROBES - 1)], userId -> null);
+    }
+
+    /** Segment cache hit, restaurant lookup and pricing, as apply_offer does them. */
+    @Benchmark
+    public int applyPathLookups() {
+        int i = probe++ & (PROBES - 1);
+        String segment = segmentCache.get(userIds[i], userId -> null);
+        return repository.findByRestaurant(restaurantIds[i]).applyBestOffer(SegmentRegistry.idOf(segment), cartValues[i]);
+    }
+}
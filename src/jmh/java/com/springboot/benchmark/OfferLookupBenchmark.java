@@ -0,0 +1,134 @@
+package com.springboot.benchmark;
+
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.repository.OffHeapOfferRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Best-offer lookup for one cart against stores of 10 to 1M offers, ten offers per
+ * restaurant. {@code linearScan} streams over all offers the way apply_offer did before
+ * the offer repository existed, keeping the largest discount. {@code offHeapLookup} reads
+ * the same offers from {@link OffHeapOfferRepository}'s direct buffers.
+ * {@code decisionTablePricing} prices the cart the way apply_offer does, from the
+ * restaurant's decision table of offer values; {@code offerObjectPricing} finds the
+ * best offer object first and applies it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class OfferLookupBenchmark {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+    private static final int PROBES = 1024;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int offerCount;
+
+    private InMemoryOfferRepository repository;
+    private OffHeapOfferRepository offHeapRepository;
+    private List<OfferRequest> allOffers;
+    private int[] restaurantIds;
+    private String[] segments;
+    private int[] segmentIds;
+    private int[] cartValues;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        Random random = new Random(42);
+        int restaurants = Math.max(1, offerCount / 10);
+
+        allOffers = new ArrayList<>(offerCount);
+        for (int i = 0; i < offerCount; i++) {
+            allOffers.add(new OfferRequest(1 + i % restaurants, i % 2 == 0 ? "FLATX" : "PERCENTAGE", 1 + random.nextInt(50),
+                    Collections.singletonList(SEGMENTS[random.nextInt(SEGMENTS.length)])));
+        }
+        List<CompiledOffer> compiled = new ArrayList<>(offerCount);
+        for (OfferRequest offer : allOffers) {
+            compiled.add(CompiledOffer.compile(offer));
+        }
+        repository = new InMemoryOfferRepository();
+        repository.saveAll(compiled);
+        offHeapRepository = new OffHeapOfferRepository();
+        offHeapRepository.saveAll(compiled);
+
+        restaurantIds = new int[PROBES];
+        segments = new String[PROBES];
+        segmentIds = new int[PROBES];
+        cartValues = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            cartValues[i] = 50 + random.nextInt(1_000);
+            restaurantIds[i] = 1 + random.nextInt(restaurants);
+            segments[i] = SEGMENTS[random.nextInt(SEGMENTS.length)];
+            segmentIds[i] = SegmentRegistry.idOf(segments[i]);
+        }
+    }
+
+    @Benchmark
+    public CompiledOffer indexedLookup() {
+        int i = probe++ & (PROBES - 1);
+        return repository.findByRestaurant(restaurantIds[i]).bestOffer(segmentIds[i], cartValues[i]);
+    }
+
+    @Benchmark
+    public CompiledOffer offHeapLookup() {
+        int i = probe++ & (PROBES - 1);
+        return offHeapRepository.findByRestaurant(restaurantIds[i]).bestOffer(segmentIds[i], cartValues[i]);
+    }
+
+    @Benchmark
+    public int decisionTablePricing() {
+        int i = probe++ & (PROBES - 1);
+        return repository.findByRestaurant(restaurantIds[i]).applyBestOffer(segmentIds[i], cartValues[i]);
+    }
+
+    @Benchmark
+    public int offerObjectPricing() {
+        int i = probe++ & (PROBES - 1);
+        CompiledOffer best = repository.findByRestaurant(restaurantIds[i]).bestOffer(segmentIds[i], cartValues[i]);
+        return best == null ? cartValues[i] : best.apply(cartValues[i]);
+    }
+
+    @Benchmark
+    public int offHeapPricing() {
+        int i = probe++ & (PROBES - 1);
+        return offHeapRepository.applyBestOffer(restaurantIds[i], segmentIds[i], cartValues[i]);
+    }
+
+    @Benchmark
+    public Optional<OfferRequest> linearScan() {
+        int i = probe++ & (PROBES - 1);
+        int restaurantId = restaurantIds[i];
+        String segment = segments[i];
+        int cartValue = cartValues[i];
+        return allOffers.stream().filter(x -> x.getRestaurant_id() == restaurantId)
+                .filter(x -> x.getCustomer_segment().contains(segment))
+                .min(Comparator.comparingInt(x -> x.getOffer_type().equals("FLATX") ? cartValue - x.getOffer_value()
+                        : (int) (cartValue - cartValue * x.getOffer_value() * (0.01))));
+    }
+}
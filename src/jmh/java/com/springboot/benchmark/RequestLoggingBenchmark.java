@@ -0,0 +1,136 @@
+package com.springboot.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.springboot.controller.ApplyOfferRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request logging from several request threads at once: the synchronised
+ * {@code System.out.println} apply_offer used to do, a debug call gated off by the
+ * level, and an INFO event written through the console pattern synchronously and through
+ * an {@link AsyncAppender} set up like the one in logback-spring.xml. Output goes to a
+ * discarding stream and the loggers live in their own context, so neither the terminal
+ * nor the application's logging configuration is involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%15.15t] %-40.40logger{39} : %m%n";
+
+    private final ApplyOfferRequest applyOfferRequest = new ApplyOfferRequest();
+    private final LoggerContext context = new LoggerContext();
+    private PrintStream stdout;
+    private Logger gatedLogger;
+    private Logger synchronousLogger;
+    private Logger asynchronousLogger;
+
+    @Setup
+    public void setUp() {
+        applyOfferRequest.setCart_value(200);
+        applyOfferRequest.setRestaurant_id(1);
+        applyOfferRequest.setUser_id(1);
+        stdout = new PrintStream(new DiscardingOutputStream(), true);
+
+        gatedLogger = context.getLogger("benchmark.gated");
+        gatedLogger.setLevel(Level.INFO);
+
+        synchronousLogger = logger("benchmark.synchronous", discardingAppender("SYNCHRONOUS"));
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setName("ASYNC");
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        async.setNeverBlock(true);
+        async.addAppender(discardingAppender("ASYNC_TARGET"));
+        async.start();
+        asynchronousLogger = logger("benchmark.asynchronous", async);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void printlnPerRequest() {
+        stdout.println(applyOfferRequest);
+    }
+
+    @Benchmark
+    public void gatedDebug() {
+        gatedLogger.debug("apply offer request {}", applyOfferRequest);
+    }
+
+    @Benchmark
+    public void synchronousInfo() {
+        synchronousLogger.info("apply offer request {}", applyOfferRequest);
+    }
+
+    /** With neverBlock, events beyond a full queue are dropped rather than waited for. */
+    @Benchmark
+    public void asynchronousInfo() {
+        asynchronousLogger.info("apply offer request {}", applyOfferRequest);
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private OutputStreamAppender<ILoggingEvent> discardingAppender(String name) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new DiscardingOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
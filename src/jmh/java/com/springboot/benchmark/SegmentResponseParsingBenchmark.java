@@ -0,0 +1,57 @@
+package com.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.springboot.controller.SegmentResponse;
+import com.springboot.service.SegmentResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialisation of a user_segment body: a new ObjectMapper per call (the original
+ * code), a shared ObjectReader, and the streaming {@link SegmentResponseParser}.
+ * With the profile's default {@code gc} profiler, {@code gc.alloc.rate.norm} gives the
+ * bytes each parse allocates; the streaming parser should allocate a small fraction of
+ * what a fresh ObjectMapper does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SegmentResponseParsingBenchmark {
+
+    private static final byte[] BODY = "{\"segment\": \"p1\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader segmentReader = objectMapper.readerFor(SegmentResponse.class);
+    private final SegmentResponseParser segmentParser = new SegmentResponseParser(objectMapper.getFactory());
+
+    @Benchmark
+    public SegmentResponse objectMapperPerCall() throws IOException {
+        return new ObjectMapper().readValue(new ByteArrayInputStream(BODY), SegmentResponse.class);
+    }
+
+    @Benchmark
+    public SegmentResponse sharedObjectReader() throws IOException {
+        return segmentReader.readValue(new ByteArrayInputStream(BODY));
+    }
+
+    @Benchmark
+    public String streamingParser() throws IOException {
+        return segmentParser.readSegment(new ByteArrayInputStream(BODY));
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.springboot.util.VirtualThreads;
+
+/**
+ * Runs every Tomcat request on its own virtual thread instead of the bounded worker
+ * pool. A request blocked on the user_segment service then parks its virtual thread
+ * and frees the carrier, so the number of requests in flight is no longer capped by
+ * {@code server.tomcat.max-threads}; the segment client, which runs on the request
+ * thread, is bounded by its connection pool and bulkhead instead.
+ * <p>
+ * Startup fails on a JVM without virtual threads rather than silently serving on
+ * platform threads.
+ */
+@Component
+@ConditionalOnProperty(prefix = "virtual-threads", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class VirtualThreadTomcatCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory>,
+		DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadTomcatCustomizer.class);
+
+	private final ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+	@Override
+	public void customize(TomcatServletWebServerFactory factory) {
+		factory.addConnectorCustomizers(connector -> {
+			ProtocolHandler handler = connector.getProtocolHandler();
+			if (!(handler instanceof AbstractProtocol)) {
+				throw new IllegalStateException("Cannot set the executor of " + handler.getClass().getName());
+			}
+			((AbstractProtocol<?>) handler).setExecutor(executor);
+			log.info("serving {} requests on virtual threads", connector.getScheme());
+		});
+	}
+
+	/** Tomcat does not shut down an executor it did not create. */
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+}
@@ -1,125 +1,118 @@
 package com.springboot.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.service.CartOfferMetrics;
+import com.springboot.service.CartOfferService;
 import com.springboot.service.Dog;
+import com.springboot.service.OfferIngestService;
+import com.springboot.service.SegmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.springboot.service.Animal;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.ArrayList;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class AutowiredController {
 
+	private static final Logger log = LoggerFactory.getLogger(AutowiredController.class);
 
-	List<OfferRequest> allOffers = new ArrayList<>();
+	@Autowired
+	private OfferIngestService offerIngestService;
+
+	@Autowired
+	private CartOfferService cartOfferService;
+
+	@Autowired
+	private SegmentService segmentService;
+
+	@Autowired
+	private CartOfferMetrics metrics;
 
 	@PostMapping(path = "/api/v1/offer")
 	public ApiResponse postOperation(@RequestBody OfferRequest offerRequest) {
-		System.out.println(offerRequest);
+		log.debug("offer request {}", offerRequest);
+		long start = System.nanoTime();
 		
-		String validationError = validateOfferRequest(offerRequest);
+		String validationError = offerIngestService.publish(offerRequest);
+		metrics.recordCreateOffer(start);
 		if (validationError != null) {
 			return new ApiResponse(validationError);
 		}
 		
-		allOffers.add(offerRequest);
 		return new ApiResponse("success");
 	}
 
+	/**
+	 * Bulk load: the body is a JSON array of offers or newline-delimited offer objects.
+	 */
+	@PostMapping(path = "/api/v1/offer/bulk")
+	public BulkOfferResponse bulkPostOperation(HttpServletRequest request) throws IOException {
+		BulkOfferResponse response = offerIngestService.publishAll(request.getInputStream());
+		log.info("bulk offers accepted {} rejected {}", response.getAccepted_count(), response.getRejected_count());
+		return response;
+	}
+
 	@PostMapping(path = "/api/v1/cart/apply_offer")
 	public ApplyOfferResponse applyOffer(@RequestBody ApplyOfferRequest applyOfferRequest) throws Exception {
-		System.out.println(applyOfferRequest);
-		int cartVal = applyOfferRequest.getCart_value();
-		SegmentResponse segmentResponse = getSegmentResponse(applyOfferRequest.getUser_id());
-		Optional<OfferRequest> matchRequest = allOffers.stream().filter(x->x.getRestaurant_id()==applyOfferRequest.getRestaurant_id())
-				.filter(x->x.getCustomer_segment().contains(segmentResponse.getSegment()))
-				.findFirst();
-
-		if(matchRequest.isPresent()){
-			System.out.println("got a match");
-//			System.out.println(matchRequest.get());
-			OfferRequest gotOffer = matchRequest.get();
-
-			if(gotOffer.getOffer_type().equals("FLATX")) {
-				cartVal = cartVal - gotOffer.getOffer_value();
-			} else {
-				cartVal = (int) (cartVal - cartVal * gotOffer.getOffer_value()*(0.01));
-			}
-
+		log.debug("apply offer request {}", applyOfferRequest);
+		long start = System.nanoTime();
+		try {
+			return cartOfferService.applyOffer(applyOfferRequest);
+		} finally {
+			metrics.recordApplyOffer(start);
 		}
-		return new ApplyOfferResponse(cartVal);
 	}
 
-	private String validateOfferRequest(OfferRequest offerRequest) {
-		if (offerRequest == null) {
-			return "error: Offer request cannot be null";
-		}
-		
-		if (offerRequest.getRestaurant_id() <= 0) {
-			return "error: Restaurant ID must be positive";
-		}
-		
-		if (offerRequest.getOffer_type() == null || offerRequest.getOffer_type().trim().isEmpty()) {
-			return "error: Offer type cannot be empty";
-		}
-		
-		if (!offerRequest.getOffer_type().equals("FLATX") && !offerRequest.getOffer_type().equals("PERCENTAGE")) {
-			return "error: Offer type must be FLATX or PERCENTAGE";
-		}
-		
-		if (offerRequest.getOffer_value() < 0) {
-			return "error: Offer value cannot be negative";
-		}
-		
-		if (offerRequest.getCustomer_segment() == null || offerRequest.getCustomer_segment().isEmpty()) {
-			return "error: Customer segment cannot be empty";
-		}
-		
-		// Validate customer segments
-		for (String segment : offerRequest.getCustomer_segment()) {
-			if (!segment.equals("p1") && !segment.equals("p2") && !segment.equals("p3")) {
-				return "error: Invalid customer segment. Must be p1, p2, or p3";
-			}
-		}
-		
-		return null;
+	/**
+	 * Same contract as apply_offer, but the request thread is handed back to Tomcat while
+	 * the segment lookup is in flight.
+	 */
+	@PostMapping(path = "/api/v1/cart/apply_offer/async")
+	public CompletableFuture<ApplyOfferResponse> applyOfferAsync(@RequestBody ApplyOfferRequest applyOfferRequest) {
+		log.debug("apply offer request {}", applyOfferRequest);
+		long start = System.nanoTime();
+		return cartOfferService.applyOfferAsync(applyOfferRequest)
+				.whenComplete((response, e) -> metrics.recordApplyOfferAsync(start));
 	}
 
-	private SegmentResponse getSegmentResponse(int userid)
-	{
-		SegmentResponse segmentResponse = new SegmentResponse();
+	@PostMapping(path = "/api/v1/cart/apply_offer/batch")
+	public List<ApplyOfferResponse> applyOffers(@RequestBody List<ApplyOfferRequest> applyOfferRequests) {
+		log.debug("apply offer batch of {} carts", applyOfferRequests.size());
+		long start = System.nanoTime();
 		try {
-			String urlString = "http://localhost:1080/api/v1/user_segment?" + "user_id=" + userid;
-			URL url = new URL(urlString);
-			HttpURLConnection con = (HttpURLConnection) url.openConnection();
-			con.setRequestMethod("GET");
-			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-
-
-			connection.setRequestProperty("accept", "application/json");
-
-			// This line makes the request
-			InputStream responseStream = connection.getInputStream();
-
-			// Manually converting the response body InputStream to APOD using Jackson
-			ObjectMapper mapper = new ObjectMapper();
-			 segmentResponse = mapper.readValue(responseStream,SegmentResponse.class);
-			System.out.println("got segment response" + segmentResponse);
-
-
-		} catch (Exception e) {
-			System.out.println(e);
+			return cartOfferService.applyOffers(applyOfferRequests);
+		} finally {
+			metrics.recordApplyOfferBatch(start);
 		}
-		return segmentResponse;
 	}
 
-
+	/**
+	 * Warms the segment cache for users expected to apply offers soon, e.g. on session
+	 * start; answers before the lookups finish. Too many users, or a null or negative
+	 * user id, is a 400.
+	 */
+	@PostMapping(path = "/api/v1/segment/prefetch")
+	public ApiResponse prefetchSegments(@RequestBody SegmentPrefetchRequest prefetchRequest) {
+		List<Integer> userIds = prefetchRequest.getUser_ids();
+		if (userIds != null) {
+			String validationError = segmentService.validatePrefetch(userIds);
+			if (validationError != null) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, validationError);
+			}
+			segmentService.prefetch(userIds);
+		}
+		return new ApiResponse("accepted");
+	}
 }
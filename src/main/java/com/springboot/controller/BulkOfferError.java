@@ -0,0 +1,13 @@
+package com.springboot.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOfferError {
+    private int index;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.springboot.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOfferResponse {
+    private String response_msg;
+    private int accepted_count;
+    private int rejected_count;
+
+    private List<BulkOfferError> errors;
+}
@@ -0,0 +1,120 @@
+package com.springboot.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.springboot.property.ReactiveApiProperty;
+import com.springboot.service.CartOfferMetrics;
+import com.springboot.service.CartOfferService;
+import com.springboot.service.OfferIngestService;
+import com.springboot.service.SegmentService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The offer and apply_offer contracts of {@link AutowiredController} on WebFlux and
+ * Reactor Netty, for {@code spring.main.web-application-type=reactive}. Carts are priced
+ * by the same {@link CartOfferService} against the same offer store; the segment lookup
+ * goes through the non-blocking segment client, so no thread waits on it and a few
+ * event-loop threads carry every request in flight.
+ * <p>
+ * Offers are published on a single writer thread, since a save may write to the offer
+ * log and the repository takes its writes one at a time anyway.
+ */
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveCartOfferController implements DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveCartOfferController.class);
+
+	@Autowired
+	private OfferIngestService offerIngestService;
+
+	@Autowired
+	private CartOfferService cartOfferService;
+
+	@Autowired
+	private SegmentService segmentService;
+
+	@Autowired
+	private CartOfferMetrics metrics;
+
+	@Autowired
+	private ReactiveApiProperty property;
+
+	private final Scheduler offerWriter = Schedulers.newSingle("offer-writer");
+
+	@PostMapping(path = "/api/v1/offer")
+	public Mono<ApiResponse> postOperation(@RequestBody Mono<OfferRequest> offerRequest) {
+		return offerRequest.publishOn(offerWriter).map(request -> {
+			log.debug("offer request {}", request);
+			long start = System.nanoTime();
+			String validationError = offerIngestService.publish(request);
+			metrics.recordCreateOffer(start);
+			return new ApiResponse(validationError != null ? validationError : "success");
+		});
+	}
+
+	@PostMapping(path = "/api/v1/cart/apply_offer")
+	public Mono<ApplyOfferResponse> applyOffer(@RequestBody Mono<ApplyOfferRequest> applyOfferRequest) {
+		return applyOfferRequest.flatMap(request -> {
+			log.debug("apply offer request {}", request);
+			long start = System.nanoTime();
+			return Mono.fromFuture(cartOfferService.applyOfferAsync(request))
+					.doFinally(signal -> metrics.recordApplyOfferAsync(start));
+		});
+	}
+
+	/**
+	 * Prices a JSON array of carts as it is read, with at most
+	 * {@link ReactiveApiProperty#getBatchConcurrency()} carts in flight; responses keep the
+	 * order of the request.
+	 */
+	@PostMapping(path = "/api/v1/cart/apply_offer/batch")
+	public Mono<List<ApplyOfferResponse>> applyOffers(@RequestBody Flux<ApplyOfferRequest> applyOfferRequests) {
+		long start = System.nanoTime();
+		return applyOfferRequests
+				.flatMapSequential(request -> Mono.fromFuture(cartOfferService.applyOfferAsync(request)),
+						Math.max(1, property.getBatchConcurrency()))
+				.collectList()
+				.doFinally(signal -> metrics.recordApplyOfferBatch(start));
+	}
+
+	/**
+	 * Warms the segment cache for users expected to apply offers soon; answers before the
+	 * lookups finish. Too many users, or a null or negative user id, is a 400.
+	 */
+	@PostMapping(path = "/api/v1/segment/prefetch")
+	public Mono<ApiResponse> prefetchSegments(@RequestBody Mono<SegmentPrefetchRequest> prefetchRequest) {
+		return prefetchRequest.map(request -> {
+			List<Integer> userIds = request.getUser_ids();
+			if (userIds != null) {
+				String validationError = segmentService.validatePrefetch(userIds);
+				if (validationError != null) {
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, validationError);
+				}
+				segmentService.prefetch(userIds);
+			}
+			return new ApiResponse("accepted");
+		});
+	}
+
+	@Override
+	public void destroy() {
+		offerWriter.dispose();
+	}
+}
@@ -0,0 +1,14 @@
+package com.springboot.controller;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SegmentPrefetchRequest {
+    private List<Integer> user_ids;
+}
@@ -0,0 +1,71 @@
+package com.springboot.model;
+
+import com.springboot.controller.OfferRequest;
+
+/**
+ * Immutable form of a validated offer as the store keeps it: the offer_type resolved
+ * to an {@link OfferType} and the customer segments folded into a
+ * {@link SegmentRegistry} mask, so matching and pricing a cart is integer work only. It
+ * holds no strings or lists, which keeps each stored offer at a few dozen bytes.
+ */
+public final class CompiledOffer {
+
+	private final int restaurantId;
+
+	private final OfferType type;
+
+	private final int offerValue;
+
+	private final long segmentMask;
+
+	public CompiledOffer(int restaurantId, OfferType type, int offerValue, long segmentMask) {
+		this.restaurantId = restaurantId;
+		this.type = type;
+		this.offerValue = offerValue;
+		this.segmentMask = segmentMask;
+	}
+
+	/**
+	 * Compiles an offer request; its type and segments must be known, which
+	 * validation at ingest guarantees.
+	 */
+	public static CompiledOffer compile(OfferRequest offerRequest) {
+		OfferType type = OfferType.fromCode(offerRequest.getOffer_type());
+		if (type == null) {
+			throw new IllegalArgumentException("Unknown offer type: " + offerRequest.getOffer_type());
+		}
+		return new CompiledOffer(offerRequest.getRestaurant_id(), type, offerRequest.getOffer_value(),
+				SegmentRegistry.maskOf(offerRequest.getCustomer_segment()));
+	}
+
+	public int getRestaurantId() {
+		return restaurantId;
+	}
+
+	public OfferType getType() {
+		return type;
+	}
+
+	public int getOfferValue() {
+		return offerValue;
+	}
+
+	public long getSegmentMask() {
+		return segmentMask;
+	}
+
+	public boolean appliesTo(int segmentId) {
+		return (segmentMask & SegmentRegistry.bitOf(segmentId)) != 0;
+	}
+
+	/** Cart value after this offer's discount. */
+	public int apply(int cartValue) {
+		return type.apply(cartValue, offerValue);
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledOffer(restaurantId=" + restaurantId + ", type=" + type + ", offerValue=" + offerValue
+				+ ", segmentMask=" + Long.toBinaryString(segmentMask) + ")";
+	}
+}
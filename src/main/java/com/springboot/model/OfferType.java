@@ -0,0 +1,45 @@
+package com.springboot.model;
+
+/**
+ * Discount rule of an offer, chosen once when the offer is compiled so pricing a cart
+ * dispatches on the enum instead of comparing offer_type strings.
+ * <p>
+ * Every rule is monotonic in the offer value: for a non-negative cart, a larger value
+ * never leaves a larger cart value. Best-offer selection relies on this to keep only
+ * the largest offer of each type.
+ */
+public enum OfferType {
+
+	/** A fixed amount off the cart. */
+	FLATX {
+		@Override
+		public int apply(int cartValue, int offerValue) {
+			return cartValue - offerValue;
+		}
+	},
+
+	/** A percentage of the cart off, truncated to whole units. */
+	PERCENTAGE {
+		@Override
+		public int apply(int cartValue, int offerValue) {
+			return (int) (cartValue - cartValue * offerValue * (0.01));
+		}
+	};
+
+	private static final OfferType[] VALUES = values();
+
+	public static final int COUNT = VALUES.length;
+
+	/** Cart value after this discount. */
+	public abstract int apply(int cartValue, int offerValue);
+
+	/** The type named by an offer_type, or {@code null} when it names none. */
+	public static OfferType fromCode(String code) {
+		for (OfferType type : VALUES) {
+			if (type.name().equals(code)) {
+				return type;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,74 @@
+package com.springboot.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the customer segments offers can target to small integer ids. An offer's
+ * eligibility is a {@code long} mask with bit {@code id} set for each of its segments,
+ * so matching a user's segment is a single AND and the universe may grow to 64
+ * segments without changing the offer layout.
+ * <p>
+ * Segment strings read from the user_segment service are {@link #intern(String)
+ * interned} on arrival, so resolving their id later hits the map's identity check
+ * instead of comparing characters.
+ */
+public final class SegmentRegistry {
+
+	private static final String[] CODES = {"p1", "p2", "p3"};
+
+	private static final Map<String, Integer> IDS = new HashMap<>();
+
+	static {
+		for (int id = 0; id < CODES.length; id++) {
+			IDS.put(CODES[id], id);
+		}
+	}
+
+	/** Number of registered segments; ids run from 0 to {@code SIZE - 1}. */
+	public static final int SIZE = CODES.length;
+
+	private SegmentRegistry() {
+	}
+
+	/** Id of the segment, or -1 when the code is {@code null} or not registered. */
+	public static int idOf(String code) {
+		if (code == null) {
+			return -1;
+		}
+		Integer id = IDS.get(code);
+		return id == null ? -1 : id;
+	}
+
+	public static boolean contains(String code) {
+		return idOf(code) >= 0;
+	}
+
+	public static String codeOf(int id) {
+		return CODES[id];
+	}
+
+	/** The registry's own instance of a registered code; other values are returned as given. */
+	public static String intern(String code) {
+		int id = idOf(code);
+		return id < 0 ? code : CODES[id];
+	}
+
+	public static long bitOf(int id) {
+		return 1L << id;
+	}
+
+	/** Mask of the given segment codes; an unregistered code is refused. */
+	public static long maskOf(Collection<String> codes) {
+		long mask = 0;
+		for (String code : codes) {
+			int id = idOf(code);
+			if (id < 0) {
+				throw new IllegalArgumentException("Unknown customer segment: " + code);
+			}
+			mask |= bitOf(id);
+		}
+		return mask;
+	}
+}
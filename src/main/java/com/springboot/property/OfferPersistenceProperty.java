@@ -0,0 +1,56 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "offer.store.persistence")
+public class OfferPersistenceProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Whether offers are logged to disk and restored on startup. */
+	private boolean enabled = false;
+
+	private String directory = "data/offers";
+
+	/** Offers logged since the last snapshot that trigger the next one. */
+	private int snapshotEveryOffers = 1_000_000;
+
+	/** Force every log append to disk; otherwise appends survive a process crash but not a power loss. */
+	private boolean syncOnWrite = false;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public int getSnapshotEveryOffers() {
+		return snapshotEveryOffers;
+	}
+
+	public void setSnapshotEveryOffers(int snapshotEveryOffers) {
+		this.snapshotEveryOffers = snapshotEveryOffers;
+	}
+
+	public boolean isSyncOnWrite() {
+		return syncOnWrite;
+	}
+
+	public void setSyncOnWrite(boolean syncOnWrite) {
+		this.syncOnWrite = syncOnWrite;
+	}
+}
@@ -0,0 +1,31 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the WebFlux variant of the API, served when the application runs with
+ * {@code spring.main.web-application-type=reactive}.
+ */
+@Component
+@ConfigurationProperties(prefix = "reactive")
+public class ReactiveApiProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Carts of one batch priced at once. Further carts are not read from the request body
+	 * until one of them is priced, so a large batch holds at most this many lookups.
+	 */
+	private int batchConcurrency = 256;
+
+	public int getBatchConcurrency() {
+		return batchConcurrency;
+	}
+
+	public void setBatchConcurrency(int batchConcurrency) {
+		this.batchConcurrency = batchConcurrency;
+	}
+}
@@ -0,0 +1,49 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "segment.batch")
+public class SegmentBatchProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Users resolved by one batch; a full batch is sent without waiting. */
+	private int maxBatchSize = 100;
+
+	/** How long the first user of a batch waits for others to join it. */
+	private long maxWaitMillis = 2;
+
+	/**
+	 * Also batch the segment lookups of single apply_offer requests that miss the cache,
+	 * not only prefetches and batch requests. Adds up to {@code maxWaitMillis} to a miss.
+	 */
+	private boolean batchLookups = false;
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public void setMaxWaitMillis(long maxWaitMillis) {
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	public boolean isBatchLookups() {
+		return batchLookups;
+	}
+
+	public void setBatchLookups(boolean batchLookups) {
+		this.batchLookups = batchLookups;
+	}
+}
@@ -0,0 +1,44 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "segment.cache")
+public class SegmentCacheProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private int maxSize = 100_000;
+
+	private long ttlMillis = 300_000;
+
+	/** How long a user the segment service does not know (4xx answer) is remembered. */
+	private long negativeTtlMillis = 5_000;
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	public void setTtlMillis(long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+	}
+
+	public long getNegativeTtlMillis() {
+		return negativeTtlMillis;
+	}
+
+	public void setNegativeTtlMillis(long negativeTtlMillis) {
+		this.negativeTtlMillis = negativeTtlMillis;
+	}
+}
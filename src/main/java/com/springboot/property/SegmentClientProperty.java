@@ -0,0 +1,90 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "segment.client")
+public class SegmentClientProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String baseUrl = "http://localhost:1080";
+
+	/**
+	 * Path of the bulk lookup, answering {@code ?user_ids=1,2,3} with
+	 * {@code {"segments":{"1":"p1",...}}}. Empty when the service has none; batches are
+	 * then resolved with parallel single-user calls.
+	 */
+	private String bulkPath = "";
+
+	private int maxConnections = 200;
+
+	private int connectTimeoutMillis = 500;
+
+	private int readTimeoutMillis = 1_000;
+
+	/** How long a request may wait for a free pooled connection. */
+	private int connectionRequestTimeoutMillis = 200;
+
+	/** How long an idle connection is kept open for reuse. */
+	private long keepAliveMillis = 30_000;
+
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	public String getBulkPath() {
+		return bulkPath;
+	}
+
+	public void setBulkPath(String bulkPath) {
+		this.bulkPath = bulkPath;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public int getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+	public void setReadTimeoutMillis(int readTimeoutMillis) {
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	public int getConnectionRequestTimeoutMillis() {
+		return connectionRequestTimeoutMillis;
+	}
+
+	public void setConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+		this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+	}
+
+	public long getKeepAliveMillis() {
+		return keepAliveMillis;
+	}
+
+	public void setKeepAliveMillis(long keepAliveMillis) {
+		this.keepAliveMillis = keepAliveMillis;
+	}
+}
@@ -0,0 +1,79 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "segment.resilience")
+public class SegmentResilienceProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Percentage of failed calls in the window that opens the circuit. */
+	private int failureRateThreshold = 50;
+
+	/** Number of most recent calls the failure rate is computed over. */
+	private int slidingWindowSize = 20;
+
+	/** Calls the window must hold before the failure rate can open the circuit. */
+	private int minimumCalls = 10;
+
+	/** How long the circuit stays open before a single probe call is let through. */
+	private long openMillis = 5_000;
+
+	/** Calls to the segment service allowed in flight at once; further calls are refused. */
+	private int maxConcurrentCalls = 100;
+
+	/** Segment used when the segment service cannot be asked; empty prices the cart without a discount. */
+	private String fallbackSegment;
+
+	public int getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	public void setFailureRateThreshold(int failureRateThreshold) {
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+	public int getSlidingWindowSize() {
+		return slidingWindowSize;
+	}
+
+	public void setSlidingWindowSize(int slidingWindowSize) {
+		this.slidingWindowSize = slidingWindowSize;
+	}
+
+	public int getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	public void setMinimumCalls(int minimumCalls) {
+		this.minimumCalls = minimumCalls;
+	}
+
+	public long getOpenMillis() {
+		return openMillis;
+	}
+
+	public void setOpenMillis(long openMillis) {
+		this.openMillis = openMillis;
+	}
+
+	public int getMaxConcurrentCalls() {
+		return maxConcurrentCalls;
+	}
+
+	public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+		this.maxConcurrentCalls = maxConcurrentCalls;
+	}
+
+	public String getFallbackSegment() {
+		return fallbackSegment;
+	}
+
+	public void setFallbackSegment(String fallbackSegment) {
+		this.fallbackSegment = fallbackSegment;
+	}
+}
@@ -0,0 +1,24 @@
+package com.springboot.property;
+
+import java.io.Serializable;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "virtual-threads")
+public class VirtualThreadProperty implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Serve requests on virtual threads instead of Tomcat's worker pool; needs Java 21 or later. */
+	private boolean enabled = false;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+}
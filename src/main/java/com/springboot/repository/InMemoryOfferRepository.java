@@ -0,0 +1,159 @@
+package com.springboot.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.util.IntObjectMap;
+
+/**
+ * Offers indexed by restaurant_id, then by customer segment and offer type, keeping the
+ * best offer of each bucket (see {@link RestaurantOffers}).
+ * <p>
+ * Safe for concurrent use: each restaurant's buckets are an immutable
+ * {@link RestaurantOffers} snapshot that writers replace atomically, so lookups never
+ * lock and never observe a half-applied write. Writers are serialised on one lock;
+ * offers are published far less often than carts are priced.
+ * <p>
+ * When persistence is enabled, every write goes to the {@link OfferLog} before it is
+ * applied, and the store is rebuilt from the log on startup.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "offer.store", name = "type", havingValue = "heap", matchIfMissing = true)
+public class InMemoryOfferRepository implements OfferRepository {
+
+	private static final Logger log = LoggerFactory.getLogger(InMemoryOfferRepository.class);
+
+	/** Keyed by the primitive restaurant_id so lookups do not box it. */
+	private final IntObjectMap<RestaurantOffers> offersByRestaurant = new IntObjectMap<>();
+
+	private final Object writeLock = new Object();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Autowired(required = false)
+	private OfferLog offerLog;
+
+	public InMemoryOfferRepository() {
+	}
+
+	/** A store backed by the given log; call {@link #restore()} before use. */
+	public InMemoryOfferRepository(OfferLog offerLog) {
+		this.offerLog = offerLog;
+	}
+
+	/** Rebuilds the store from the offer log when persistence is enabled. */
+	@PostConstruct
+	public void restore() throws IOException {
+		if (offerLog != null) {
+			synchronized (writeLock) {
+				long restored = offerLog.replay(this::apply);
+				count.set((int) restored);
+			}
+		}
+	}
+
+	@Override
+	public void save(CompiledOffer offer) {
+		synchronized (writeLock) {
+			List<CompiledOffer> offers = Collections.singletonList(offer);
+			append(offers);
+			int restaurantId = offer.getRestaurantId();
+			offersByRestaurant.put(restaurantId, current(restaurantId).withOffers(offers));
+			count.incrementAndGet();
+			snapshotIfDue();
+		}
+	}
+
+	/**
+	 * Installs every restaurant's new snapshot as pending first and then publishes them
+	 * with a single volatile write, so readers see either none or all of the batch.
+	 */
+	@Override
+	public void saveAll(Collection<CompiledOffer> offers) {
+		if (offers.isEmpty()) {
+			return;
+		}
+		synchronized (writeLock) {
+			append(offers);
+			apply(offers);
+			count.addAndGet(offers.size());
+			snapshotIfDue();
+		}
+	}
+
+	/** Callers hold the write lock. */
+	private void apply(Collection<CompiledOffer> offers) {
+		Map<Integer, List<CompiledOffer>> batchByRestaurant = new LinkedHashMap<>();
+		for (CompiledOffer offer : offers) {
+			batchByRestaurant.computeIfAbsent(offer.getRestaurantId(), id -> new ArrayList<>()).add(offer);
+		}
+		if (batchByRestaurant.isEmpty()) {
+			return;
+		}
+
+		RestaurantOffers.Publication publication = new RestaurantOffers.Publication();
+		Map<Integer, RestaurantOffers> staged = new LinkedHashMap<>();
+		for (Map.Entry<Integer, List<CompiledOffer>> batch : batchByRestaurant.entrySet()) {
+			RestaurantOffers current = current(batch.getKey());
+			RestaurantOffers next = current.withOffers(batch.getValue());
+			staged.put(batch.getKey(), next);
+			offersByRestaurant.put(batch.getKey(), next.pending(current, publication));
+		}
+		publication.publish();
+		// drop the pending wrappers so they do not pin the previous snapshots
+		staged.forEach(offersByRestaurant::put);
+	}
+
+	@Override
+	public RestaurantOffers findByRestaurant(int restaurantId) {
+		RestaurantOffers restaurantOffers = offersByRestaurant.get(restaurantId);
+		return restaurantOffers == null ? RestaurantOffers.EMPTY : restaurantOffers.visible();
+	}
+
+	@Override
+	public int count() {
+		return count.get();
+	}
+
+	private void append(Collection<CompiledOffer> offers) {
+		if (offerLog != null) {
+			try {
+				offerLog.append(offers);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not log offers, nothing was saved", e);
+			}
+		}
+	}
+
+	private void snapshotIfDue() {
+		if (offerLog != null && offerLog.isSnapshotDue()) {
+			List<RestaurantOffers> view = new ArrayList<>(offersByRestaurant.size());
+			offersByRestaurant.forEachValue(view::add);
+			try {
+				offerLog.snapshot(count.get(), action -> view.forEach(restaurantOffers -> restaurantOffers.forEachOffer(action)));
+			} catch (IOException e) {
+				log.error("could not start an offer snapshot", e);
+			}
+		}
+	}
+
+	private RestaurantOffers current(int restaurantId) {
+		return offersByRestaurant.getOrDefault(restaurantId, RestaurantOffers.EMPTY);
+	}
+}
@@ -0,0 +1,525 @@
+package com.springboot.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+
+/**
+ * Offer store for catalogs too large to keep as objects on the heap. Each restaurant's
+ * best-offer buckets (the same ones {@link RestaurantOffers} keeps) are packed into one
+ * fixed-width block in direct buffers, and restaurants are found through an
+ * open-addressing map on primitive int arrays, so the store adds a handful of objects to
+ * the heap however many offers it holds.
+ * <p>
+ * A block is laid out as the batch that wrote it (long), the block it replaced (int,
+ * -1 if none) and restaurant_id (int), followed by one slot per [type ordinal][segment
+ * id] bucket holding the offer value (int) and segment mask (long), a zero mask marking
+ * an empty bucket.
+ * <p>
+ * Blocks are never modified once written: a write copies the restaurant's block, applies
+ * the offers and points the index at the copy, so lookups never lock. A batch's blocks
+ * keep reading as the blocks they replaced until the batch number is published, which
+ * makes {@link #saveAll(Collection)} all-or-nothing like in the heap store. Replaced
+ * blocks are reclaimed by compacting into fresh buffers once they outnumber live ones.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "offer.store", name = "type", havingValue = "off-heap")
+public class OffHeapOfferRepository implements OfferRepository {
+
+	private static final Logger log = LoggerFactory.getLogger(OffHeapOfferRepository.class);
+
+	private static final int HEADER_SIZE = 16;
+
+	private static final int PREVIOUS_OFFSET = 8;
+
+	private static final int RESTAURANT_OFFSET = 12;
+
+	private static final int SLOT_SIZE = 12;
+
+	private static final int BLOCK_SIZE = HEADER_SIZE + OfferType.COUNT * SegmentRegistry.SIZE * SLOT_SIZE;
+
+	private static final int CHUNK_SHIFT = 16;
+
+	private static final int CHUNK_BLOCKS = 1 << CHUNK_SHIFT;
+
+	private static final int MAX_CHUNKS = 1 << (31 - CHUNK_SHIFT);
+
+	private static final OfferType[] TYPES = OfferType.values();
+
+	/** Index and buffers replaced together on compaction, so readers never mix the two. */
+	private volatile Storage storage = new Storage(new Index(1024));
+
+	/** Latest batch whose blocks lookups may read. */
+	private volatile long publishedBatch;
+
+	private final Object writeLock = new Object();
+
+	/** Next free block number; only touched under the write lock. */
+	private int nextBlock;
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	@Autowired(required = false)
+	private OfferLog offerLog;
+
+	public OffHeapOfferRepository() {
+	}
+
+	/** A store backed by the given log; call {@link #restore()} before use. */
+	public OffHeapOfferRepository(OfferLog offerLog) {
+		this.offerLog = offerLog;
+	}
+
+	/** Rebuilds the store from the offer log when persistence is enabled. */
+	@PostConstruct
+	public void restore() throws IOException {
+		if (offerLog != null) {
+			synchronized (writeLock) {
+				long restored = offerLog.replay(this::apply);
+				count.set((int) restored);
+			}
+		}
+	}
+
+	@Override
+	public void save(CompiledOffer offer) {
+		saveAll(Collections.singletonList(offer));
+	}
+
+	@Override
+	public void saveAll(Collection<CompiledOffer> offers) {
+		if (offers.isEmpty()) {
+			return;
+		}
+		synchronized (writeLock) {
+			append(offers);
+			apply(offers);
+			count.addAndGet(offers.size());
+			snapshotIfDue();
+		}
+	}
+
+	@Override
+	public OfferIndex findByRestaurant(int restaurantId) {
+		Storage current = storage;
+		int block = visibleBlock(current, restaurantId);
+		return block < 0 ? RestaurantOffers.EMPTY : new BlockView(current, block);
+	}
+
+	/** Reads the buckets in place, without a view per lookup. */
+	@Override
+	public Optional<CompiledOffer> findBestOffer(int restaurantId, String segment, int cartValue) {
+		Storage current = storage;
+		int block = visibleBlock(current, restaurantId);
+		return Optional.ofNullable(block < 0 ? null : bestOffer(current, block, SegmentRegistry.idOf(segment), cartValue));
+	}
+
+	/** Reads the buckets in place, without a view per lookup. */
+	@Override
+	public int applyBestOffer(int restaurantId, int segmentId, int cartValue) {
+		Storage current = storage;
+		int block = visibleBlock(current, restaurantId);
+		int bestType = block < 0 ? -1 : bestType(current, block, segmentId, cartValue);
+		return bestType < 0 ? NO_MATCH : apply(current, block, bestType, segmentId, cartValue);
+	}
+
+	@Override
+	public int count() {
+		return count.get();
+	}
+
+	/** Direct memory held by blocks, live and replaced. */
+	public long offHeapBytes() {
+		Storage current = storage;
+		long bytes = 0;
+		for (int chunk = 0; chunk < MAX_CHUNKS && current.chunks.get(chunk) != null; chunk++) {
+			bytes += current.chunks.get(chunk).capacity();
+		}
+		return bytes;
+	}
+
+	private int visibleBlock(Storage current, int restaurantId) {
+		int block = current.index.get(restaurantId);
+		if (block < 0) {
+			return -1;
+		}
+		ByteBuffer chunk = current.chunk(block);
+		int offset = offset(block);
+		return chunk.getLong(offset) > publishedBatch ? chunk.getInt(offset + PREVIOUS_OFFSET) : block;
+	}
+
+	private static CompiledOffer bestOffer(Storage current, int block, int segmentId, int cartValue) {
+		int bestType = bestType(current, block, segmentId, cartValue);
+		if (bestType < 0) {
+			return null;
+		}
+		ByteBuffer chunk = current.chunk(block);
+		int offset = offset(block);
+		int slot = slot(offset, bestType, segmentId);
+		return new CompiledOffer(chunk.getInt(offset + RESTAURANT_OFFSET), TYPES[bestType], chunk.getInt(slot),
+				chunk.getLong(slot + 4));
+	}
+
+	private static int applyBestOffer(Storage current, int block, int segmentId, int cartValue) {
+		int bestType = bestType(current, block, segmentId, cartValue);
+		return bestType < 0 ? cartValue : apply(current, block, bestType, segmentId, cartValue);
+	}
+
+	private static int apply(Storage current, int block, int type, int segmentId, int cartValue) {
+		return TYPES[type].apply(cartValue, current.chunk(block).getInt(slot(offset(block), type, segmentId)));
+	}
+
+	/** Ordinal of the type whose offer leaves the lowest cart value, -1 when no offer applies. */
+	private static int bestType(Storage current, int block, int segmentId, int cartValue) {
+		if (segmentId < 0) {
+			return -1;
+		}
+		ByteBuffer chunk = current.chunk(block);
+		int offset = offset(block);
+		int bestType = -1;
+		int bestCartValue = 0;
+		for (int type = 0; type < TYPES.length; type++) {
+			int slot = slot(offset, type, segmentId);
+			if (chunk.getLong(slot + 4) != 0) {
+				int discounted = TYPES[type].apply(cartValue, chunk.getInt(slot));
+				if (bestType < 0 || discounted < bestCartValue) {
+					bestType = type;
+					bestCartValue = discounted;
+				}
+			}
+		}
+		return bestType;
+	}
+
+	/** Callers hold the write lock. */
+	private void apply(Collection<CompiledOffer> offers) {
+		Map<Integer, List<CompiledOffer>> batchByRestaurant = new LinkedHashMap<>();
+		for (CompiledOffer offer : offers) {
+			batchByRestaurant.computeIfAbsent(offer.getRestaurantId(), id -> new ArrayList<>()).add(offer);
+		}
+		if (batchByRestaurant.isEmpty()) {
+			return;
+		}
+
+		compactIfSparse(batchByRestaurant.size());
+		long batch = publishedBatch + 1;
+		for (Map.Entry<Integer, List<CompiledOffer>> restaurant : batchByRestaurant.entrySet()) {
+			Storage current = storage;
+			int previous = current.index.get(restaurant.getKey());
+			int block = allocate(current);
+			ByteBuffer chunk = current.chunk(block);
+			int offset = offset(block);
+			if (previous >= 0) {
+				copy(current.chunk(previous), offset(previous), chunk, offset);
+			}
+			chunk.putLong(offset, batch);
+			chunk.putInt(offset + PREVIOUS_OFFSET, previous);
+			chunk.putInt(offset + RESTAURANT_OFFSET, restaurant.getKey());
+			for (CompiledOffer offer : restaurant.getValue()) {
+				for (int segmentId = 0; segmentId < SegmentRegistry.SIZE; segmentId++) {
+					int slot = slot(offset, offer.getType().ordinal(), segmentId);
+					if (offer.appliesTo(segmentId)
+							&& (chunk.getLong(slot + 4) == 0 || offer.getOfferValue() > chunk.getInt(slot))) {
+						chunk.putInt(slot, offer.getOfferValue());
+						chunk.putLong(slot + 4, offer.getSegmentMask());
+					}
+				}
+			}
+			if (current.index.isFull()) {
+				storage = current = new Storage(current.index.grow(), current.chunks);
+			}
+			current.index.put(restaurant.getKey(), block);
+		}
+		publishedBatch = batch;
+	}
+
+	private int allocate(Storage current) {
+		if (nextBlock == Integer.MAX_VALUE) {
+			throw new IllegalStateException("Off-heap offer store is full");
+		}
+		int block = nextBlock++;
+		int chunk = block >>> CHUNK_SHIFT;
+		if (current.chunks.get(chunk) == null) {
+			current.chunks.set(chunk, ByteBuffer.allocateDirect(CHUNK_BLOCKS * BLOCK_SIZE));
+		}
+		return block;
+	}
+
+	/**
+	 * Copies the live blocks into fresh buffers when replaced blocks outnumber them by more
+	 * than a chunk, leaving room for the coming batch. Callers hold the write lock and no
+	 * batch is pending.
+	 */
+	private void compactIfSparse(int incoming) {
+		Storage current = storage;
+		int live = current.index.size();
+		if (nextBlock - live <= Math.max(live, CHUNK_BLOCKS)) {
+			return;
+		}
+		long start = System.nanoTime();
+		int replaced = nextBlock - live;
+		Index index = new Index(Index.capacityFor(live + incoming));
+		Storage compacted = new Storage(index);
+		nextBlock = 0;
+		current.index.forEach((restaurantId, block) -> {
+			int copy = allocate(compacted);
+			ByteBuffer chunk = compacted.chunk(copy);
+			int offset = offset(copy);
+			copy(current.chunk(block), offset(block), chunk, offset);
+			chunk.putLong(offset, 0);
+			chunk.putInt(offset + PREVIOUS_OFFSET, -1);
+			index.put(restaurantId, copy);
+		});
+		storage = compacted;
+		log.info("compacted off-heap offers: {} live blocks kept, {} replaced blocks dropped in {} ms", live, replaced,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void append(Collection<CompiledOffer> offers) {
+		if (offerLog != null) {
+			try {
+				offerLog.append(offers);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not log offers, nothing was saved", e);
+			}
+		}
+	}
+
+	/**
+	 * Blocks are immutable but the index is not, so the snapshot is taken from a copy of
+	 * the live blocks made under the write lock.
+	 */
+	private void snapshotIfDue() {
+		if (offerLog != null && offerLog.isSnapshotDue()) {
+			Storage current = storage;
+			ByteBuffer frozen = ByteBuffer.allocateDirect(current.index.size() * BLOCK_SIZE);
+			current.index.forEach((restaurantId, block) -> {
+				copy(current.chunk(block), offset(block), frozen, frozen.position());
+				frozen.position(frozen.position() + BLOCK_SIZE);
+			});
+			try {
+				offerLog.snapshot(count.get(), action -> {
+					for (int offset = 0; offset < frozen.capacity(); offset += BLOCK_SIZE) {
+						forEachOffer(frozen, offset, action);
+					}
+				});
+			} catch (IOException e) {
+				log.error("could not start an offer snapshot", e);
+			}
+		}
+	}
+
+	/**
+	 * Visits each bucket's offer once, with its mask narrowed to the buckets of its type it
+	 * heads, like {@link RestaurantOffers} does for the heap store.
+	 */
+	private static void forEachOffer(ByteBuffer chunk, int offset, Consumer<CompiledOffer> action) {
+		int restaurantId = chunk.getInt(offset + RESTAURANT_OFFSET);
+		for (int type = 0; type < TYPES.length; type++) {
+			for (int segmentId = 0; segmentId < SegmentRegistry.SIZE; segmentId++) {
+				int slot = slot(offset, type, segmentId);
+				long mask = chunk.getLong(slot + 4);
+				if (mask == 0 || headsEarlierBucket(chunk, offset, type, segmentId)) {
+					continue;
+				}
+				int value = chunk.getInt(slot);
+				long narrowed = 0;
+				for (int other = segmentId; other < SegmentRegistry.SIZE; other++) {
+					int otherSlot = slot(offset, type, other);
+					if (chunk.getLong(otherSlot + 4) == mask && chunk.getInt(otherSlot) == value) {
+						narrowed |= SegmentRegistry.bitOf(other);
+					}
+				}
+				action.accept(new CompiledOffer(restaurantId, TYPES[type], value, narrowed));
+			}
+		}
+	}
+
+	private static boolean headsEarlierBucket(ByteBuffer chunk, int offset, int type, int segmentId) {
+		int slot = slot(offset, type, segmentId);
+		for (int earlier = 0; earlier < segmentId; earlier++) {
+			int earlierSlot = slot(offset, type, earlier);
+			if (chunk.getLong(earlierSlot + 4) == chunk.getLong(slot + 4) && chunk.getInt(earlierSlot) == chunk.getInt(slot)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void copy(ByteBuffer from, int fromOffset, ByteBuffer to, int toOffset) {
+		for (int i = 0; i < BLOCK_SIZE; i += 4) {
+			to.putInt(toOffset + i, from.getInt(fromOffset + i));
+		}
+	}
+
+	private static int offset(int block) {
+		return (block & (CHUNK_BLOCKS - 1)) * BLOCK_SIZE;
+	}
+
+	private static int slot(int offset, int type, int segmentId) {
+		return offset + HEADER_SIZE + (type * SegmentRegistry.SIZE + segmentId) * SLOT_SIZE;
+	}
+
+	private static final class Storage {
+
+		private final Index index;
+
+		private final AtomicReferenceArray<ByteBuffer> chunks;
+
+		private Storage(Index index) {
+			this(index, new AtomicReferenceArray<>(MAX_CHUNKS));
+		}
+
+		private Storage(Index index, AtomicReferenceArray<ByteBuffer> chunks) {
+			this.index = index;
+			this.chunks = chunks;
+		}
+
+		private ByteBuffer chunk(int block) {
+			return chunks.get(block >>> CHUNK_SHIFT);
+		}
+	}
+
+	/** A restaurant's buckets as one lookup sees them; reads the block in place. */
+	private static final class BlockView implements OfferIndex {
+
+		private final Storage storage;
+
+		private final int block;
+
+		private BlockView(Storage storage, int block) {
+			this.storage = storage;
+			this.block = block;
+		}
+
+		@Override
+		public CompiledOffer bestOffer(int segmentId, int cartValue) {
+			return OffHeapOfferRepository.bestOffer(storage, block, segmentId, cartValue);
+		}
+
+		@Override
+		public boolean hasOffer(int segmentId) {
+			return bestType(storage, block, segmentId, 0) >= 0;
+		}
+
+		@Override
+		public int applyBestOffer(int segmentId, int cartValue) {
+			return OffHeapOfferRepository.applyBestOffer(storage, block, segmentId, cartValue);
+		}
+	}
+
+	/**
+	 * Open-addressing restaurant_id to block map on primitive arrays, with linear probing
+	 * and at most half full. One writer (under the store's write lock), lock-free readers:
+	 * a slot's key is written before its block, and a block of 0 marks a free slot, so
+	 * blocks are stored plus one.
+	 */
+	private static final class Index {
+
+		private final AtomicIntegerArray keys;
+
+		private final AtomicIntegerArray blocks;
+
+		private final int mask;
+
+		private int size;
+
+		private Index(int capacity) {
+			this.keys = new AtomicIntegerArray(capacity);
+			this.blocks = new AtomicIntegerArray(capacity);
+			this.mask = capacity - 1;
+		}
+
+		private static int capacityFor(int size) {
+			int capacity = 1024;
+			while (capacity < size * 2) {
+				capacity <<= 1;
+			}
+			return capacity;
+		}
+
+		/** The restaurant's block, -1 if it has none. */
+		private int get(int key) {
+			for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+				int block = blocks.get(i);
+				if (block == 0) {
+					return -1;
+				}
+				if (keys.get(i) == key) {
+					return block - 1;
+				}
+			}
+		}
+
+		private void put(int key, int block) {
+			for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+				if (blocks.get(i) == 0) {
+					keys.set(i, key);
+					blocks.set(i, block + 1);
+					size++;
+					return;
+				}
+				if (keys.get(i) == key) {
+					blocks.set(i, block + 1);
+					return;
+				}
+			}
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private boolean isFull() {
+			return (size + 1) * 2 > blocks.length();
+		}
+
+		private Index grow() {
+			Index grown = new Index(blocks.length() * 2);
+			forEach(grown::put);
+			return grown;
+		}
+
+		private void forEach(Entries action) {
+			for (int i = 0; i < blocks.length(); i++) {
+				int block = blocks.get(i);
+				if (block != 0) {
+					action.accept(keys.get(i), block - 1);
+				}
+			}
+		}
+
+		private static int hash(int key) {
+			int h = key * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Entries {
+		void accept(int restaurantId, int block);
+	}
+}
@@ -0,0 +1,33 @@
+package com.springboot.repository;
+
+import com.springboot.model.CompiledOffer;
+
+/**
+ * Consistent best-offer view of one restaurant's offers, as returned by
+ * {@link OfferRepository#findByRestaurant(int)}. Later writes never show through a view
+ * already handed out.
+ */
+public interface OfferIndex {
+
+	/**
+	 * The offer leaving the lowest cart value for the segment, {@code null} if none applies
+	 * or if the segment id is negative (unknown segment). On a tie the earlier offer type
+	 * wins; within a type, the offer saved first.
+	 */
+	CompiledOffer bestOffer(int segmentId, int cartValue);
+
+	/** Whether any offer applies to the segment; {@code false} for a negative segment id. */
+	default boolean hasOffer(int segmentId) {
+		return bestOffer(segmentId, 0) != null;
+	}
+
+	/**
+	 * The cart value after the {@link #bestOffer(int, int) best offer} for the segment, or
+	 * the cart value itself when none applies. Pricing a cart needs only this, not the
+	 * offer.
+	 */
+	default int applyBestOffer(int segmentId, int cartValue) {
+		CompiledOffer best = bestOffer(segmentId, cartValue);
+		return best == null ? cartValue : best.apply(cartValue);
+	}
+}
@@ -0,0 +1,449 @@
+package com.springboot.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.property.OfferPersistenceProperty;
+
+/**
+ * Durable form of the offer store: an append-only log of every saved offer plus
+ * periodic compact snapshots, both in the fixed-width {@link OfferRecords} layout.
+ * <p>
+ * The log is split into generations. Taking a snapshot rolls the log over to a new
+ * generation and writes, in the background, every offer the store needs up to the
+ * previous one; once the snapshot is on disk, it and the newer log generations are all
+ * that startup replays, and older files are deleted. Files are read back through
+ * memory-mapped buffers.
+ * <p>
+ * Each {@link #append(Collection)} writes one batch: a header holding the offer count, a
+ * CRC32 of the records and a CRC32 of the header itself, followed by the records. Replay
+ * applies a batch only when all of its records are on disk and intact, so a crash
+ * mid-append never restores part of a bulk upload. A torn or corrupt batch ends the
+ * replay of that generation, with a warning saying what was skipped.
+ * <p>
+ * Callers serialise {@link #append(Collection)} and {@link #snapshot(long, Contents)}
+ * under the store's write lock so the log order is the order offers were applied in.
+ */
+@Component
+@ConditionalOnProperty(prefix = "offer.store.persistence", name = "enabled", havingValue = "true")
+public class OfferLog implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(OfferLog.class);
+
+	private static final int LOG_MAGIC = 0x4F46464C;
+
+	private static final int SNAPSHOT_MAGIC = 0x4F464653;
+
+	/** Version of the snapshot header. */
+	private static final int VERSION = 1;
+
+	/** Version of the log header; logs hold framed batches. */
+	private static final int BATCH_VERSION = 2;
+
+	private static final int LOG_HEADER_SIZE = 8;
+
+	private static final int SNAPSHOT_HEADER_SIZE = 24;
+
+	/** Offer count, CRC32 of the batch's records and CRC32 of the first eight header bytes. */
+	private static final int BATCH_HEADER_SIZE = 12;
+
+	private static final String LOG_PREFIX = "offers-";
+
+	private static final String LOG_SUFFIX = ".log";
+
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+	private static final String SNAPSHOT_SUFFIX = ".bin";
+
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	/** Largest whole number of records one mapping may cover. */
+	private static final int MAX_MAPPED_BYTES = Integer.MAX_VALUE / OfferRecords.RECORD_SIZE * OfferRecords.RECORD_SIZE;
+
+	/** Largest batch one mapping may cover. */
+	private static final int MAX_BATCH_OFFERS = (MAX_MAPPED_BYTES - BATCH_HEADER_SIZE) / OfferRecords.RECORD_SIZE;
+
+	/** The store's contents at a point in time, as offers whose replay rebuilds it. */
+	@FunctionalInterface
+	public interface Contents {
+		void forEach(Consumer<CompiledOffer> action);
+	}
+
+	private final Path directory;
+
+	private final int snapshotEveryOffers;
+
+	private final boolean syncOnWrite;
+
+	private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "offer-snapshot");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private long generation;
+
+	private FileChannel logChannel;
+
+	private long offersSinceSnapshot;
+
+	private volatile boolean snapshotRunning;
+
+	@Autowired
+	public OfferLog(OfferPersistenceProperty property) throws IOException {
+		this.directory = Paths.get(property.getDirectory());
+		this.snapshotEveryOffers = property.getSnapshotEveryOffers();
+		this.syncOnWrite = property.isSyncOnWrite();
+		Files.createDirectories(directory);
+	}
+
+	/**
+	 * Feeds the latest snapshot and every newer log generation to the sink in chunks,
+	 * oldest first, then opens a fresh log generation for appends. Returns the number of
+	 * offers the store held, as counted when they were saved.
+	 */
+	public synchronized long replay(Consumer<List<CompiledOffer>> sink) throws IOException {
+		TreeMap<Long, Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		TreeMap<Long, Path> logs = files(LOG_PREFIX, LOG_SUFFIX);
+		long snapshotGeneration = -1;
+		long offerCount = 0;
+		long start = System.nanoTime();
+
+		if (!snapshots.isEmpty()) {
+			snapshotGeneration = snapshots.lastKey();
+			offerCount = replaySnapshot(snapshots.lastEntry().getValue(), sink);
+		}
+		long replayed = 0;
+		for (Path logFile : logs.tailMap(snapshotGeneration, false).values()) {
+			replayed += replayLog(logFile, sink);
+		}
+		offerCount += replayed;
+		offersSinceSnapshot = replayed;
+
+		generation = Math.max(snapshotGeneration, logs.isEmpty() ? -1 : logs.lastKey()) + 1;
+		logChannel = openLog(generation);
+		log.info("restored {} offers from {} in {} ms", offerCount, directory,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return offerCount;
+	}
+
+	/** Appends the offers to the log as one batch, before the store applies them. */
+	public synchronized void append(Collection<CompiledOffer> offers) throws IOException {
+		if (offers.size() > MAX_BATCH_OFFERS) {
+			throw new IOException("Cannot log a batch of " + offers.size() + " offers, the limit is " + MAX_BATCH_OFFERS);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(BATCH_HEADER_SIZE + offers.size() * OfferRecords.RECORD_SIZE);
+		buffer.position(BATCH_HEADER_SIZE);
+		for (CompiledOffer offer : offers) {
+			OfferRecords.write(buffer, offer);
+		}
+		buffer.flip();
+		buffer.putInt(0, offers.size());
+		buffer.putInt(4, (int) crc(buffer, BATCH_HEADER_SIZE, buffer.limit() - BATCH_HEADER_SIZE));
+		buffer.putInt(8, (int) crc(buffer, 0, 8));
+		while (buffer.hasRemaining()) {
+			logChannel.write(buffer);
+		}
+		if (syncOnWrite) {
+			logChannel.force(false);
+		}
+		offersSinceSnapshot += offers.size();
+	}
+
+	/** Whether enough offers were logged since the last snapshot to take the next one. */
+	public synchronized boolean isSnapshotDue() {
+		return !snapshotRunning && offersSinceSnapshot >= snapshotEveryOffers;
+	}
+
+	/**
+	 * Rolls the log over and writes the given contents as a snapshot in the background.
+	 * The contents must be an immutable view of the store taken under its write lock,
+	 * holding {@code offerCount} offers.
+	 */
+	public synchronized void snapshot(long offerCount, Contents contents) throws IOException {
+		long covered = generation;
+		logChannel.close();
+		generation++;
+		logChannel = openLog(generation);
+		offersSinceSnapshot = 0;
+		snapshotRunning = true;
+		snapshotWriter.execute(() -> {
+			try {
+				writeSnapshot(covered, offerCount, contents);
+			} catch (IOException | RuntimeException e) {
+				log.error("offer snapshot of generation {} failed; the log still holds its offers", covered, e);
+			} finally {
+				snapshotRunning = false;
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		snapshotWriter.shutdown();
+		try {
+			snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			if (logChannel != null) {
+				logChannel.close();
+			}
+		}
+	}
+
+	private void writeSnapshot(long covered, long offerCount, Contents contents) throws IOException {
+		long start = System.nanoTime();
+		Path temporary = directory.resolve(SNAPSHOT_PREFIX + covered + ".tmp");
+		long records;
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.position(SNAPSHOT_HEADER_SIZE);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+			long[] written = new long[1];
+			IOException[] failure = new IOException[1];
+			contents.forEach(offer -> {
+				if (failure[0] != null) {
+					return;
+				}
+				if (buffer.remaining() < OfferRecords.RECORD_SIZE) {
+					failure[0] = drain(channel, buffer);
+				}
+				OfferRecords.write(buffer, offer);
+				written[0]++;
+			});
+			if (failure[0] == null) {
+				failure[0] = drain(channel, buffer);
+			}
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+			records = written[0];
+
+			ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE);
+			header.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(offerCount).putLong(records).flip();
+			channel.write(header, 0);
+			channel.force(true);
+		}
+		Files.move(temporary, directory.resolve(SNAPSHOT_PREFIX + covered + SNAPSHOT_SUFFIX),
+				StandardCopyOption.ATOMIC_MOVE);
+
+		for (Path snapshot : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(covered, false).values()) {
+			Files.deleteIfExists(snapshot);
+		}
+		for (Path logFile : files(LOG_PREFIX, LOG_SUFFIX).headMap(covered, true).values()) {
+			Files.deleteIfExists(logFile);
+		}
+		log.info("wrote offer snapshot {} with {} records in {} ms", covered, records,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	private static IOException drain(FileChannel channel, ByteBuffer buffer) {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			return null;
+		} catch (IOException e) {
+			return e;
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	private long replaySnapshot(Path snapshot, Consumer<List<CompiledOffer>> sink) throws IOException {
+		try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER_SIZE);
+			if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not an offer snapshot: " + snapshot);
+			}
+			long offerCount = header.getLong();
+			long records = header.getLong();
+			long replayed = replayRecords(snapshot, channel, SNAPSHOT_HEADER_SIZE, sink);
+			if (replayed != records) {
+				throw new IOException("Offer snapshot " + snapshot + " holds " + replayed + " of " + records + " records");
+			}
+			return offerCount;
+		}
+	}
+
+	private long replayLog(Path logFile, Consumer<List<CompiledOffer>> sink) throws IOException {
+		try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+			if (channel.size() < LOG_HEADER_SIZE) {
+				return 0;
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, LOG_HEADER_SIZE);
+			if (header.getInt() != LOG_MAGIC || header.getInt() != BATCH_VERSION) {
+				throw new IOException("Not an offer log: " + logFile);
+			}
+			return replayBatches(logFile, channel, sink);
+		}
+	}
+
+	/**
+	 * Replays whole, intact batches; stops at the first torn or corrupt one. Batches are
+	 * read from a mapping of up to {@link #MAX_MAPPED_BYTES}, remapped from the first batch
+	 * that does not fit.
+	 */
+	private static long replayBatches(Path logFile, FileChannel channel, Consumer<List<CompiledOffer>> sink)
+			throws IOException {
+		long size = channel.size();
+		long replayed = 0;
+		List<CompiledOffer> chunk = new ArrayList<>();
+		long position = LOG_HEADER_SIZE;
+		MappedByteBuffer mapped = null;
+		long mappedAt = position;
+		while (position < size) {
+			if (size - position < BATCH_HEADER_SIZE) {
+				return skipped(logFile, position, size, "torn", replayed, chunk, sink);
+			}
+			if (mapped == null || position + BATCH_HEADER_SIZE > mappedAt + mapped.capacity()) {
+				mappedAt = position;
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, mappedAt, Math.min(MAX_MAPPED_BYTES, size - mappedAt));
+			}
+			int header = (int) (position - mappedAt);
+			int offers = mapped.getInt(header);
+			if (mapped.getInt(header + 8) != (int) crc(mapped, header, 8) || offers <= 0 || offers > MAX_BATCH_OFFERS) {
+				return skipped(logFile, position, size, "corrupt", replayed, chunk, sink);
+			}
+			long batchSize = BATCH_HEADER_SIZE + (long) offers * OfferRecords.RECORD_SIZE;
+			if (size - position < batchSize) {
+				return skipped(logFile, position, size, "torn", replayed, chunk, sink);
+			}
+			if (position + batchSize > mappedAt + mapped.capacity()) {
+				mappedAt = position;
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, mappedAt, Math.min(MAX_MAPPED_BYTES, size - mappedAt));
+				header = 0;
+			}
+			int records = header + BATCH_HEADER_SIZE;
+			if (mapped.getInt(header + 4) != (int) crc(mapped, records, offers * OfferRecords.RECORD_SIZE)) {
+				return skipped(logFile, position, size, "corrupt", replayed, chunk, sink);
+			}
+			int batchStart = chunk.size();
+			mapped.position(records);
+			for (int i = 0; i < offers; i++) {
+				CompiledOffer offer = OfferRecords.read(mapped);
+				if (offer == null) {
+					chunk.subList(batchStart, chunk.size()).clear();
+					return skipped(logFile, position, size, "corrupt", replayed, chunk, sink);
+				}
+				chunk.add(offer);
+			}
+			replayed += offers;
+			position += batchSize;
+			// a batch is never split across chunks, so each is applied whole
+			if (chunk.size() >= 1 << 16) {
+				sink.accept(chunk);
+				chunk = new ArrayList<>();
+			}
+		}
+		sink.accept(chunk);
+		return replayed;
+	}
+
+	/**
+	 * Applies what was replayed before a torn or corrupt batch and warns about what is
+	 * skipped; the record count is estimated from the bytes left, as the batch header may
+	 * not be trustworthy.
+	 */
+	private static long skipped(Path logFile, long offset, long size, String damage, long replayed,
+			List<CompiledOffer> chunk, Consumer<List<CompiledOffer>> sink) {
+		sink.accept(chunk);
+		log.warn("offer log {} has a {} batch at offset {}; skipped it and the rest of the file, {} bytes or about {} records",
+				logFile, damage, offset, size - offset, (size - offset) / OfferRecords.RECORD_SIZE);
+		return replayed;
+	}
+
+	/** Replays a snapshot's whole, intact records from the offset on; stops at the first torn or corrupt one. */
+	private static long replayRecords(Path file, FileChannel channel, long offset, Consumer<List<CompiledOffer>> sink)
+			throws IOException {
+		long size = channel.size();
+		long end = offset + (size - offset) / OfferRecords.RECORD_SIZE * OfferRecords.RECORD_SIZE;
+		long replayed = 0;
+		List<CompiledOffer> chunk = new ArrayList<>();
+		for (long position = offset; position < end; position += MAX_MAPPED_BYTES) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+					Math.min(MAX_MAPPED_BYTES, end - position));
+			while (mapped.hasRemaining()) {
+				int recordAt = mapped.position();
+				CompiledOffer offer = OfferRecords.read(mapped);
+				if (offer == null) {
+					sink.accept(chunk);
+					log.warn("{} has a corrupt record at offset {}; skipped it and the rest of the file, {} records",
+							file, position + recordAt, (end - position - recordAt) / OfferRecords.RECORD_SIZE);
+					return replayed;
+				}
+				chunk.add(offer);
+				replayed++;
+				if (chunk.size() == 1 << 16) {
+					sink.accept(chunk);
+					chunk = new ArrayList<>();
+				}
+			}
+		}
+		sink.accept(chunk);
+		if (end < size) {
+			log.warn("{} ends in a torn record at offset {}; skipped it", file, end);
+		}
+		return replayed;
+	}
+
+	private static long crc(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer bytes = buffer.duplicate();
+		bytes.limit(offset + length).position(offset);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	private FileChannel openLog(long logGeneration) throws IOException {
+		FileChannel channel = FileChannel.open(directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX),
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+		header.putInt(LOG_MAGIC).putInt(BATCH_VERSION).flip();
+		channel.write(header);
+		return channel;
+	}
+
+	private TreeMap<Long, Path> files(String prefix, String suffix) throws IOException {
+		TreeMap<Long, Path> files = new TreeMap<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+			for (Path entry : entries) {
+				String name = entry.getFileName().toString();
+				try {
+					files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), entry);
+				} catch (NumberFormatException e) {
+					log.warn("ignoring unexpected file {}", entry);
+				}
+			}
+		}
+		return files;
+	}
+}
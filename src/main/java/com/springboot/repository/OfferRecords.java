@@ -0,0 +1,55 @@
+package com.springboot.repository;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+
+/**
+ * Fixed-width binary layout of a compiled offer, shared by the offer log and its
+ * snapshots: restaurant_id, offer type ordinal, offer value and segment mask, followed
+ * by a CRC32 of those 20 bytes so a torn or corrupt record is detected on replay.
+ */
+final class OfferRecords {
+
+	static final int RECORD_SIZE = 24;
+
+	private static final int PAYLOAD_SIZE = 20;
+
+	private static final OfferType[] TYPES = OfferType.values();
+
+	private OfferRecords() {
+	}
+
+	static void write(ByteBuffer buffer, CompiledOffer offer) {
+		int start = buffer.position();
+		buffer.putInt(offer.getRestaurantId());
+		buffer.putInt(offer.getType().ordinal());
+		buffer.putInt(offer.getOfferValue());
+		buffer.putLong(offer.getSegmentMask());
+		buffer.putInt((int) checksum(buffer, start));
+	}
+
+	/** Reads the record at the buffer's position; {@code null} when its checksum does not match. */
+	static CompiledOffer read(ByteBuffer buffer) {
+		int start = buffer.position();
+		long checksum = checksum(buffer, start);
+		int restaurantId = buffer.getInt();
+		int type = buffer.getInt();
+		int offerValue = buffer.getInt();
+		long segmentMask = buffer.getLong();
+		if (buffer.getInt() != (int) checksum || type < 0 || type >= TYPES.length) {
+			return null;
+		}
+		return new CompiledOffer(restaurantId, TYPES[type], offerValue, segmentMask);
+	}
+
+	private static long checksum(ByteBuffer buffer, int start) {
+		ByteBuffer payload = buffer.duplicate();
+		payload.limit(start + PAYLOAD_SIZE).position(start);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return crc.getValue();
+	}
+}
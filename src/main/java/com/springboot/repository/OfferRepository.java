@@ -0,0 +1,45 @@
+package com.springboot.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.SegmentRegistry;
+
+public interface OfferRepository {
+
+	/** Returned by {@link #applyBestOffer(int, int, int)} when no offer applies. */
+	int NO_MATCH = Integer.MIN_VALUE;
+
+	void save(CompiledOffer offer);
+
+	/**
+	 * Saves a batch so that lookups observe either none or all of its offers.
+	 */
+	void saveAll(Collection<CompiledOffer> offers);
+
+	/**
+	 * Returns a consistent snapshot of the restaurant's offers, empty when it has none.
+	 */
+	OfferIndex findByRestaurant(int restaurantId);
+
+	/**
+	 * Returns the restaurant's offer for the given segment that leaves the lowest value
+	 * for a cart of the given value.
+	 */
+	default Optional<CompiledOffer> findBestOffer(int restaurantId, String segment, int cartValue) {
+		return Optional.ofNullable(findByRestaurant(restaurantId).bestOffer(SegmentRegistry.idOf(segment), cartValue));
+	}
+
+	/**
+	 * The cart value after the restaurant's best offer for the segment, {@link #NO_MATCH}
+	 * when none applies. Reads one snapshot like {@link #findByRestaurant(int)} but need
+	 * not hand out a view, so stores can price a cart without allocating.
+	 */
+	default int applyBestOffer(int restaurantId, int segmentId, int cartValue) {
+		OfferIndex restaurantOffers = findByRestaurant(restaurantId);
+		return restaurantOffers.hasOffer(segmentId) ? restaurantOffers.applyBestOffer(segmentId, cartValue) : NO_MATCH;
+	}
+
+	int count();
+}
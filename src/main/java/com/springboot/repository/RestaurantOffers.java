@@ -0,0 +1,200 @@
+package com.springboot.repository;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+
+/**
+ * Immutable best-offer index of one restaurant. Offers are bucketed by segment and
+ * offer type, and since every {@link OfferType} discounts more as its value grows, a
+ * bucket only needs its largest offer. Choosing the best offer for a cart therefore
+ * compares one candidate per type, however many offers the restaurant has.
+ * <p>
+ * Each instance also compiles those buckets into a decision table of plain offer
+ * values, so pricing a cart with {@link #applyBestOffer(int, int)} reads one int array
+ * and does the arithmetic, without touching the offer objects.
+ * <p>
+ * Writers derive a new instance with {@link #withOffers(Collection)} instead of
+ * mutating, so a reader holding a reference always sees a consistent index. While a
+ * multi-restaurant batch is being installed, the store holds
+ * {@link #pending(RestaurantOffers, Publication) pending} instances that keep showing
+ * the previous offers until the batch's {@link Publication} is published.
+ */
+public final class RestaurantOffers implements OfferIndex {
+
+	private static final OfferType[] TYPES = OfferType.values();
+
+	/** Marks a bucket without an offer in {@link #decisions}; offers are validated non-negative. */
+	private static final int NO_OFFER = Integer.MIN_VALUE;
+
+	static final RestaurantOffers EMPTY = new RestaurantOffers(new CompiledOffer[OfferType.COUNT][SegmentRegistry.SIZE],
+			null, null);
+
+	/** Largest offer of each type for each segment, indexed [type ordinal][segment id]; {@code null} when none. */
+	private final CompiledOffer[][] bestByTypeAndSegment;
+
+	/**
+	 * Value of each bucket's offer, indexed [segment id * {@link OfferType#COUNT} + type
+	 * ordinal], {@link #NO_OFFER} when the bucket is empty.
+	 */
+	private final int[] decisions;
+
+	private final RestaurantOffers previous;
+
+	private final Publication publication;
+
+	private RestaurantOffers(CompiledOffer[][] bestByTypeAndSegment, RestaurantOffers previous, Publication publication) {
+		this(bestByTypeAndSegment, compile(bestByTypeAndSegment), previous, publication);
+	}
+
+	private RestaurantOffers(CompiledOffer[][] bestByTypeAndSegment, int[] decisions, RestaurantOffers previous,
+			Publication publication) {
+		this.bestByTypeAndSegment = bestByTypeAndSegment;
+		this.decisions = decisions;
+		this.previous = previous;
+		this.publication = publication;
+	}
+
+	private static int[] compile(CompiledOffer[][] bestByTypeAndSegment) {
+		int[] decisions = new int[SegmentRegistry.SIZE * OfferType.COUNT];
+		for (int segmentId = 0; segmentId < SegmentRegistry.SIZE; segmentId++) {
+			for (int type = 0; type < OfferType.COUNT; type++) {
+				CompiledOffer offer = bestByTypeAndSegment[type][segmentId];
+				decisions[segmentId * OfferType.COUNT + type] = offer == null ? NO_OFFER : offer.getOfferValue();
+			}
+		}
+		return decisions;
+	}
+
+	@Override
+	public CompiledOffer bestOffer(int segmentId, int cartValue) {
+		if (segmentId < 0) {
+			return null;
+		}
+		CompiledOffer best = null;
+		int bestCartValue = 0;
+		for (CompiledOffer[] bestBySegment : bestByTypeAndSegment) {
+			CompiledOffer candidate = bestBySegment[segmentId];
+			if (candidate != null) {
+				int discounted = candidate.apply(cartValue);
+				if (best == null || discounted < bestCartValue) {
+					best = candidate;
+					bestCartValue = discounted;
+				}
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public boolean hasOffer(int segmentId) {
+		if (segmentId < 0) {
+			return false;
+		}
+		int base = segmentId * OfferType.COUNT;
+		for (int type = 0; type < OfferType.COUNT; type++) {
+			if (decisions[base + type] != NO_OFFER) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int applyBestOffer(int segmentId, int cartValue) {
+		if (segmentId < 0) {
+			return cartValue;
+		}
+		int base = segmentId * OfferType.COUNT;
+		int best = cartValue;
+		boolean matched = false;
+		for (int type = 0; type < OfferType.COUNT; type++) {
+			int value = decisions[base + type];
+			if (value != NO_OFFER) {
+				int discounted = TYPES[type].apply(cartValue, value);
+				if (!matched || discounted < best) {
+					best = discounted;
+					matched = true;
+				}
+			}
+		}
+		return best;
+	}
+
+	RestaurantOffers withOffers(Collection<CompiledOffer> offers) {
+		CompiledOffer[][] copy = new CompiledOffer[bestByTypeAndSegment.length][];
+		for (int type = 0; type < copy.length; type++) {
+			copy[type] = bestByTypeAndSegment[type].clone();
+		}
+		for (CompiledOffer offer : offers) {
+			CompiledOffer[] bestBySegment = copy[offer.getType().ordinal()];
+			for (int segmentId = 0; segmentId < bestBySegment.length; segmentId++) {
+				if (offer.appliesTo(segmentId)
+						&& (bestBySegment[segmentId] == null || offer.getOfferValue() > bestBySegment[segmentId].getOfferValue())) {
+					bestBySegment[segmentId] = offer;
+				}
+			}
+		}
+		return new RestaurantOffers(copy, null, null);
+	}
+
+	/**
+	 * Visits the offers that rebuild this index when saved in any order: each bucket's
+	 * offer once, with its mask narrowed to the segments whose bucket it heads, so no
+	 * two visited offers compete for the same bucket.
+	 */
+	void forEachOffer(Consumer<CompiledOffer> action) {
+		for (CompiledOffer[] bestBySegment : bestByTypeAndSegment) {
+			for (int segmentId = 0; segmentId < bestBySegment.length; segmentId++) {
+				CompiledOffer offer = bestBySegment[segmentId];
+				if (offer == null || indexOf(bestBySegment, offer) < segmentId) {
+					continue;
+				}
+				long mask = 0;
+				for (int other = segmentId; other < bestBySegment.length; other++) {
+					if (bestBySegment[other] == offer) {
+						mask |= SegmentRegistry.bitOf(other);
+					}
+				}
+				action.accept(mask == offer.getSegmentMask() ? offer
+						: new CompiledOffer(offer.getRestaurantId(), offer.getType(), offer.getOfferValue(), mask));
+			}
+		}
+	}
+
+	private static int indexOf(CompiledOffer[] offers, CompiledOffer offer) {
+		for (int i = 0; i < offers.length; i++) {
+			if (offers[i] == offer) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** This instance, but reading as {@code previous} until the publication is published. */
+	RestaurantOffers pending(RestaurantOffers previous, Publication publication) {
+		return new RestaurantOffers(bestByTypeAndSegment, decisions, previous, publication);
+	}
+
+	/** The offers a reader should see right now. */
+	RestaurantOffers visible() {
+		return publication == null || publication.isPublished() ? this : previous;
+	}
+
+	/** Flips every pending instance of one batch to visible at once. */
+	static final class Publication {
+
+		private volatile boolean published;
+
+		boolean isPublished() {
+			return published;
+		}
+
+		void publish() {
+			published = true;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.springboot.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.springboot.repository.OfferRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of the offer and apply_offer paths. Every meter is registered up front, so
+ * recording on the request path is a field read and an increment, never a registry
+ * lookup. Timers publish a percentile histogram, which Prometheus aggregates across
+ * instances, plus p50/p99/p999 computed locally.
+ */
+@Component
+public class CartOfferMetrics {
+
+	private final Timer applyOfferBlocking;
+
+	private final Timer applyOfferAsync;
+
+	private final Timer applyOfferBatch;
+
+	private final Timer createOffer;
+
+	private final Timer segmentFound;
+
+	private final Timer segmentNotFound;
+
+	private final Timer segmentError;
+
+	private final Timer segmentBatch;
+
+	private final Timer segmentBatchError;
+
+	private final DistributionSummary segmentBatchSize;
+
+	private final Counter offerMatched;
+
+	private final Counter offerNotMatched;
+
+	private final Map<OfferValidationError, Counter> validationFailures = new EnumMap<>(OfferValidationError.class);
+
+	@Autowired
+	public CartOfferMetrics(MeterRegistry registry, OfferRepository offerRepository, SegmentCache segmentCache,
+			SegmentRequestCoalescer segmentRequestCoalescer, SegmentCircuitBreaker segmentCircuitBreaker,
+			SegmentBulkhead segmentBulkhead) {
+		applyOfferBlocking = latencyTimer("cart.apply_offer", "Time to price a cart, segment lookup included", registry,
+				"endpoint", "blocking");
+		applyOfferAsync = latencyTimer("cart.apply_offer", "Time to price a cart, segment lookup included", registry,
+				"endpoint", "async");
+		applyOfferBatch = latencyTimer("cart.apply_offer", "Time to price a cart, segment lookup included", registry,
+				"endpoint", "batch");
+		createOffer = latencyTimer("offer.create", "Time to validate and publish one offer", registry);
+		segmentFound = latencyTimer("segment.lookup", "Calls to the user_segment service", registry, "outcome", "found");
+		segmentNotFound = latencyTimer("segment.lookup", "Calls to the user_segment service", registry, "outcome",
+				"not_found");
+		segmentError = latencyTimer("segment.lookup", "Calls to the user_segment service", registry, "outcome", "error");
+		segmentBatch = latencyTimer("segment.lookup.batch", "Bulk calls to the user_segment service", registry, "outcome",
+				"ok");
+		segmentBatchError = latencyTimer("segment.lookup.batch", "Bulk calls to the user_segment service", registry,
+				"outcome", "error");
+		segmentBatchSize = DistributionSummary.builder("segment.lookup.batch.size")
+				.description("Users resolved by one bulk call to the user_segment service").register(registry);
+
+		offerMatched = Counter.builder("cart.offer.match").description("Carts priced with or without an offer")
+				.tag("result", "hit").register(registry);
+		offerNotMatched = Counter.builder("cart.offer.match").description("Carts priced with or without an offer")
+				.tag("result", "miss").register(registry);
+		for (OfferValidationError error : OfferValidationError.values()) {
+			validationFailures.put(error, Counter.builder("offer.validation.failures")
+					.description("Offers rejected by validation").tag("reason", error.getReason()).register(registry));
+		}
+
+		Gauge.builder("offer.store.size", offerRepository, OfferRepository::count)
+				.description("Offers held by the offer repository").register(registry);
+		Gauge.builder("segment.cache.size", segmentCache, SegmentCache::size)
+				.description("Users with a cached segment").register(registry);
+		FunctionCounter.builder("segment.cache.requests", segmentCache, SegmentCache::getHitCount)
+				.tag("result", "hit").register(registry);
+		FunctionCounter.builder("segment.cache.requests", segmentCache, SegmentCache::getMissCount)
+				.tag("result", "miss").register(registry);
+		FunctionCounter.builder("segment.cache.evictions", segmentCache, SegmentCache::getEvictionCount)
+				.register(registry);
+		FunctionCounter.builder("segment.lookup.coalesced", segmentRequestCoalescer,
+				SegmentRequestCoalescer::getCoalescedCount)
+				.description("Segment lookups that joined an in-flight request").register(registry);
+		FunctionCounter.builder("segment.lookup.rejected", segmentCircuitBreaker, SegmentCircuitBreaker::getRejectedCount)
+				.description("Segment lookups refused without calling the service").tag("reason", "circuit_open")
+				.register(registry);
+		FunctionCounter.builder("segment.lookup.rejected", segmentBulkhead, SegmentBulkhead::getRejectedCount)
+				.description("Segment lookups refused without calling the service").tag("reason", "bulkhead_full")
+				.register(registry);
+		Gauge.builder("segment.circuit.state", segmentCircuitBreaker, breaker -> breaker.getState().ordinal())
+				.description("Segment circuit breaker state: 0 closed, 1 open, 2 half-open").register(registry);
+	}
+
+	private static Timer latencyTimer(String name, String description, MeterRegistry registry, String... tags) {
+		return Timer.builder(name).description(description).tags(tags).publishPercentiles(0.5, 0.99, 0.999)
+				.publishPercentileHistogram().register(registry);
+	}
+
+	public void recordApplyOffer(long startNanos) {
+		applyOfferBlocking.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordApplyOfferAsync(long startNanos) {
+		applyOfferAsync.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordApplyOfferBatch(long startNanos) {
+		applyOfferBatch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordCreateOffer(long startNanos) {
+		createOffer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/** Records a call to the segment service; a {@code null} segment is a 4xx answer. */
+	public void recordSegmentLookup(long startNanos, String segment, Throwable failure) {
+		Timer timer = failure != null ? segmentError : segment == null ? segmentNotFound : segmentFound;
+		timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordSegmentBatch(long startNanos, int users, Throwable failure) {
+		(failure != null ? segmentBatchError : segmentBatch).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		segmentBatchSize.record(users);
+	}
+
+	public void recordMatch(boolean matched) {
+		(matched ? offerMatched : offerNotMatched).increment();
+	}
+
+	public void recordValidationFailure(OfferValidationError error) {
+		validationFailures.get(error).increment();
+	}
+}
@@ -0,0 +1,111 @@
+package com.springboot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.OfferIndex;
+import com.springboot.repository.OfferRepository;
+
+/**
+ * Prices carts: resolves the user's segment, picks the restaurant's offer for that
+ * segment with the largest discount on the cart and applies it.
+ */
+@Service
+public class CartOfferService {
+
+	private static final Logger log = LoggerFactory.getLogger(CartOfferService.class);
+
+	@Autowired
+	private OfferRepository offerRepository;
+
+	@Autowired
+	private SegmentService segmentService;
+
+	@Autowired
+	private CartOfferMetrics metrics;
+
+	public ApplyOfferResponse applyOffer(ApplyOfferRequest applyOfferRequest) {
+		return price(applyOfferRequest, segmentService.getSegment(applyOfferRequest.getUser_id()));
+	}
+
+	/**
+	 * Non-blocking variant of {@link #applyOffer(ApplyOfferRequest)}; the cart is priced
+	 * on whichever thread completes the segment lookup.
+	 */
+	public CompletableFuture<ApplyOfferResponse> applyOfferAsync(ApplyOfferRequest applyOfferRequest) {
+		return segmentService.getSegmentAsync(applyOfferRequest.getUser_id())
+				.thenApply(segment -> price(applyOfferRequest, segment));
+	}
+
+	/**
+	 * Prices many carts at once. The distinct user_ids are resolved together, their cache
+	 * misses in batches, and each distinct restaurant's offers are read once, so every
+	 * cart in the batch is priced against the same snapshot of its restaurant.
+	 */
+	public List<ApplyOfferResponse> applyOffers(List<ApplyOfferRequest> applyOfferRequests) {
+		Set<Integer> userIds = new HashSet<>();
+		for (ApplyOfferRequest applyOfferRequest : applyOfferRequests) {
+			userIds.add(applyOfferRequest.getUser_id());
+		}
+		Map<Integer, String> segmentsByUser = segmentService.getSegments(userIds);
+		Map<Integer, OfferIndex> offersByRestaurant = new HashMap<>();
+		List<ApplyOfferResponse> responses = new ArrayList<>(applyOfferRequests.size());
+
+		for (ApplyOfferRequest applyOfferRequest : applyOfferRequests) {
+			String segment = segmentsByUser.get(applyOfferRequest.getUser_id());
+			OfferIndex restaurantOffers = offersByRestaurant.computeIfAbsent(applyOfferRequest.getRestaurant_id(),
+					offerRepository::findByRestaurant);
+			responses.add(price(applyOfferRequest, restaurantOffers, segment));
+		}
+		return responses;
+	}
+
+	/**
+	 * Prices one cart against the restaurant's current offers. With the segment cached,
+	 * nothing is allocated here but the response.
+	 */
+	private ApplyOfferResponse price(ApplyOfferRequest applyOfferRequest, String segment) {
+		int segmentId = SegmentRegistry.idOf(segment);
+		int cartVal = applyOfferRequest.getCart_value();
+		int discounted = offerRepository.applyBestOffer(applyOfferRequest.getRestaurant_id(), segmentId, cartVal);
+		boolean matched = discounted != OfferRepository.NO_MATCH;
+
+		metrics.recordMatch(matched);
+		if (matched) {
+			if (log.isDebugEnabled()) {
+				log.debug("offer {} matched cart {}", offerRepository.findByRestaurant(applyOfferRequest.getRestaurant_id())
+						.bestOffer(segmentId, cartVal), applyOfferRequest);
+			}
+			cartVal = discounted;
+		}
+		return new ApplyOfferResponse(cartVal);
+	}
+
+	private ApplyOfferResponse price(ApplyOfferRequest applyOfferRequest, OfferIndex restaurantOffers, String segment) {
+		int segmentId = SegmentRegistry.idOf(segment);
+		int cartVal = applyOfferRequest.getCart_value();
+		boolean matched = restaurantOffers.hasOffer(segmentId);
+
+		metrics.recordMatch(matched);
+		if (matched) {
+			if (log.isDebugEnabled()) {
+				log.debug("offer {} matched cart {}", restaurantOffers.bestOffer(segmentId, cartVal), applyOfferRequest);
+			}
+			cartVal = restaurantOffers.applyBestOffer(segmentId, cartVal);
+		}
+		return new ApplyOfferResponse(cartVal);
+	}
+}
@@ -0,0 +1,129 @@
+package com.springboot.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.controller.BulkOfferError;
+import com.springboot.controller.BulkOfferResponse;
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.OfferRepository;
+
+/**
+ * Validates offers and publishes them into the {@link OfferRepository}, one at a time
+ * or as a streamed bulk load.
+ */
+@Service
+public class OfferIngestService {
+
+	@Autowired
+	private OfferRepository offerRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CartOfferMetrics metrics;
+
+	/** Validates and saves one offer; returns the validation error, or {@code null} on success. */
+	public String publish(OfferRequest offerRequest) {
+		OfferValidationError validationError = validateOfferRequest(offerRequest);
+		if (validationError != null) {
+			metrics.recordValidationFailure(validationError);
+			return validationError.getMessage();
+		}
+		offerRepository.save(CompiledOffer.compile(offerRequest));
+		return null;
+	}
+
+	/**
+	 * Reads offers from a JSON array or from newline-delimited JSON objects, one record at
+	 * a time, compiling each valid one as it is read. Valid records are saved together as one batch; invalid ones are reported by
+	 * their zero-based position. A body that is not well-formed JSON saves nothing.
+	 */
+	public BulkOfferResponse publishAll(InputStream content) throws IOException {
+		List<CompiledOffer> accepted = new ArrayList<>();
+		List<BulkOfferError> errors = new ArrayList<>();
+		int index = 0;
+
+		try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+			JsonToken token = parser.nextToken();
+			if (token == JsonToken.START_ARRAY) {
+				token = parser.nextToken();
+			}
+			while (token != null && token != JsonToken.END_ARRAY) {
+				JsonNode record = objectMapper.readTree(parser);
+				OfferValidationError error;
+				try {
+					OfferRequest offerRequest = objectMapper.treeToValue(record, OfferRequest.class);
+					error = validateOfferRequest(offerRequest);
+					if (error == null) {
+						accepted.add(CompiledOffer.compile(offerRequest));
+					}
+				} catch (JsonProcessingException e) {
+					error = OfferValidationError.SCHEMA_MISMATCH;
+				}
+				if (error != null) {
+					metrics.recordValidationFailure(error);
+					errors.add(new BulkOfferError(index, error.getMessage()));
+				}
+				index++;
+				token = parser.nextToken();
+			}
+		} catch (JsonProcessingException e) {
+			return new BulkOfferResponse("error: Malformed JSON after record " + index + ", nothing was saved", 0, index,
+					Collections.emptyList());
+		}
+
+		offerRepository.saveAll(accepted);
+		return new BulkOfferResponse("success", accepted.size(), errors.size(), errors);
+	}
+
+	private OfferValidationError validateOfferRequest(OfferRequest offerRequest) {
+		if (offerRequest == null) {
+			return OfferValidationError.NULL_REQUEST;
+		}
+		
+		if (offerRequest.getRestaurant_id() <= 0) {
+			return OfferValidationError.INVALID_RESTAURANT_ID;
+		}
+		
+		if (offerRequest.getOffer_type() == null || offerRequest.getOffer_type().trim().isEmpty()) {
+			return OfferValidationError.EMPTY_OFFER_TYPE;
+		}
+		
+		if (OfferType.fromCode(offerRequest.getOffer_type()) == null) {
+			return OfferValidationError.INVALID_OFFER_TYPE;
+		}
+		
+		if (offerRequest.getOffer_value() < 0) {
+			return OfferValidationError.NEGATIVE_OFFER_VALUE;
+		}
+		
+		if (offerRequest.getCustomer_segment() == null || offerRequest.getCustomer_segment().isEmpty()) {
+			return OfferValidationError.EMPTY_CUSTOMER_SEGMENT;
+		}
+		
+		// Validate customer segments
+		for (String segment : offerRequest.getCustomer_segment()) {
+			if (!SegmentRegistry.contains(segment)) {
+				return OfferValidationError.INVALID_CUSTOMER_SEGMENT;
+			}
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,38 @@
+package com.springboot.service;
+
+/**
+ * Reasons an offer is rejected, with the message returned to the caller. The reason is
+ * also the {@code reason} tag of the validation-failure counter.
+ */
+public enum OfferValidationError {
+
+	NULL_REQUEST("error: Offer request cannot be null"),
+
+	INVALID_RESTAURANT_ID("error: Restaurant ID must be positive"),
+
+	EMPTY_OFFER_TYPE("error: Offer type cannot be empty"),
+
+	INVALID_OFFER_TYPE("error: Offer type must be FLATX or PERCENTAGE"),
+
+	NEGATIVE_OFFER_VALUE("error: Offer value cannot be negative"),
+
+	EMPTY_CUSTOMER_SEGMENT("error: Customer segment cannot be empty"),
+
+	INVALID_CUSTOMER_SEGMENT("error: Invalid customer segment. Must be p1, p2, or p3"),
+
+	SCHEMA_MISMATCH("error: Offer record does not match the offer schema");
+
+	private final String message;
+
+	OfferValidationError(String message) {
+		this.message = message;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public String getReason() {
+		return name().toLowerCase();
+	}
+}
@@ -0,0 +1,126 @@
+package com.springboot.service;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.http.client.HttpResponseException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.property.SegmentClientProperty;
+
+import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Mono;
+import reactor.ipc.netty.resources.PoolResources;
+
+/**
+ * Non-blocking counterpart of {@link SegmentClient} on WebClient and Reactor Netty.
+ * No thread waits while a lookup is in flight; the result is signalled on a Netty
+ * event-loop thread. Uses the same {@code segment.client} settings and answer
+ * semantics as the blocking client.
+ */
+@Component
+public class ReactiveSegmentClient implements DisposableBean {
+
+	private final String segmentUri;
+
+	private final String bulkSegmentUri;
+
+	private final Duration readTimeout;
+
+	private final PoolResources connectionPool;
+
+	private final WebClient webClient;
+
+	private final SegmentResponseParser responseParser;
+
+	@Autowired
+	public ReactiveSegmentClient(SegmentClientProperty property, WebClient.Builder webClientBuilder,
+			ObjectMapper objectMapper) {
+		this.segmentUri = property.getBaseUrl() + SegmentClient.USER_SEGMENT_PATH + "?user_id=";
+		String bulkPath = property.getBulkPath();
+		this.bulkSegmentUri = bulkPath == null || bulkPath.isEmpty() ? null : property.getBaseUrl() + bulkPath + "?user_ids=";
+		this.readTimeout = Duration.ofMillis(property.getReadTimeoutMillis());
+		this.connectionPool = PoolResources.fixed("segment-client", property.getMaxConnections());
+		this.webClient = webClientBuilder
+				.clientConnector(new ReactorClientHttpConnector(options -> options
+						.poolResources(connectionPool)
+						.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, property.getConnectTimeoutMillis())))
+				.build();
+		this.responseParser = new SegmentResponseParser(objectMapper.getFactory());
+	}
+
+	/**
+	 * Emits the segment of a user, completes empty when the service answers 4xx, and
+	 * errors on 5xx answers, transport failures and the read timeout.
+	 */
+	public Mono<String> getSegment(int userId) {
+		return webClient.get()
+				.uri(segmentUri + userId)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.flatMap(response -> {
+					int statusCode = response.statusCode().value();
+					if (statusCode >= 500) {
+						return response.bodyToMono(Void.class)
+								.then(Mono.<String>error(new HttpResponseException(statusCode, "user_segment failed for user " + userId)));
+					}
+					if (statusCode != 200) {
+						return response.bodyToMono(Void.class).then(Mono.<String>empty());
+					}
+					return response.bodyToMono(byte[].class)
+							.flatMap(body -> Mono.fromCallable(() -> responseParser.readSegment(new ByteArrayInputStream(body))));
+				})
+				.timeout(readTimeout);
+	}
+
+	/** Whether the service has a bulk lookup, see {@link #getSegments(int[])}. */
+	public boolean hasBulkLookup() {
+		return bulkSegmentUri != null;
+	}
+
+	/**
+	 * Looks up many users with one call to the bulk endpoint. Emits the segments by
+	 * user_id, without the users the service does not know; errors on any non-200 answer,
+	 * transport failures and the read timeout.
+	 */
+	public Mono<Map<Integer, String>> getSegments(int[] userIds) {
+		if (bulkSegmentUri == null) {
+			return Mono.error(new IllegalStateException("segment.client.bulk-path is not configured"));
+		}
+		StringBuilder uri = new StringBuilder(bulkSegmentUri);
+		for (int i = 0; i < userIds.length; i++) {
+			if (i > 0) {
+				uri.append(',');
+			}
+			uri.append(userIds[i]);
+		}
+		return webClient.get()
+				.uri(uri.toString())
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.flatMap(response -> {
+					int statusCode = response.statusCode().value();
+					if (statusCode != 200) {
+						return response.bodyToMono(Void.class).then(Mono.<Map<Integer, String>>error(
+								new HttpResponseException(statusCode, "bulk user_segment failed for " + userIds.length + " users")));
+					}
+					return response.bodyToMono(byte[].class)
+							.flatMap(body -> Mono.fromCallable(() -> responseParser.readSegments(new ByteArrayInputStream(body))));
+				})
+				.defaultIfEmpty(Collections.<Integer, String>emptyMap())
+				.timeout(readTimeout);
+	}
+
+	@Override
+	public void destroy() {
+		connectionPool.dispose();
+	}
+}
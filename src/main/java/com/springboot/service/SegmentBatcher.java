@@ -0,0 +1,154 @@
+package com.springboot.service;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Micro-batches segment lookups: users submitted within a short window are handed to
+ * the {@link BatchLoader} together. A batch is sent as soon as it holds
+ * {@code maxBatchSize} users, otherwise {@code maxWaitMillis} after its first user
+ * arrived. The loader is called on the submitting thread for a full batch and on the
+ * batcher's timer thread otherwise, so it must not block.
+ */
+public class SegmentBatcher implements Closeable {
+
+	/** Resolves one batch. */
+	@FunctionalInterface
+	public interface BatchLoader {
+
+		/**
+		 * Starts resolving the users; {@code results.get(i)} must eventually be completed
+		 * with the segment of {@code userIds[i]}, {@code null} for an unknown user, or
+		 * exceptionally.
+		 */
+		void load(int[] userIds, List<CompletableFuture<String>> results);
+	}
+
+	private final int maxBatchSize;
+
+	private final long maxWaitNanos;
+
+	private final BatchLoader loader;
+
+	private final ScheduledExecutorService timer;
+
+	private int[] userIds;
+
+	private List<CompletableFuture<String>> results;
+
+	/** Incremented whenever a batch is taken, so a timer set for an earlier batch does nothing. */
+	private long generation;
+
+	private boolean closed;
+
+	private final LongAdder batches = new LongAdder();
+
+	private final LongAdder users = new LongAdder();
+
+	public SegmentBatcher(int maxBatchSize, long maxWaitMillis, BatchLoader loader) {
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+		this.loader = loader;
+		this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "segment-batcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		startBatch();
+	}
+
+	/** Adds the user to the current batch; the future completes when the batch is resolved. */
+	public CompletableFuture<String> submit(int userId) {
+		CompletableFuture<String> result = new CompletableFuture<>();
+		int[] fullUserIds;
+		List<CompletableFuture<String>> fullResults;
+		synchronized (this) {
+			if (closed) {
+				result.completeExceptionally(new SegmentUnavailableException("segment batcher is closed"));
+				return result;
+			}
+			int size = results.size();
+			userIds[size] = userId;
+			results.add(result);
+			if (size + 1 < maxBatchSize) {
+				if (size == 0) {
+					long batch = generation;
+					timer.schedule(() -> flush(batch), maxWaitNanos, TimeUnit.NANOSECONDS);
+				}
+				return result;
+			}
+			fullUserIds = userIds;
+			fullResults = results;
+			startBatch();
+		}
+		dispatch(fullUserIds, fullResults);
+		return result;
+	}
+
+	/** Batches handed to the loader. */
+	public long getBatchCount() {
+		return batches.sum();
+	}
+
+	/** Users handed to the loader, over all batches. */
+	public long getUserCount() {
+		return users.sum();
+	}
+
+	/** Fails the users still waiting for a batch and stops the timer. */
+	@Override
+	public void close() {
+		List<CompletableFuture<String>> pending;
+		synchronized (this) {
+			closed = true;
+			pending = results;
+			startBatch();
+		}
+		timer.shutdownNow();
+		for (CompletableFuture<String> result : pending) {
+			result.completeExceptionally(new SegmentUnavailableException("segment batcher is closed"));
+		}
+	}
+
+	private void flush(long batch) {
+		int[] batchUserIds;
+		List<CompletableFuture<String>> batchResults;
+		synchronized (this) {
+			if (batch != generation || results.isEmpty()) {
+				return;
+			}
+			batchUserIds = userIds;
+			batchResults = results;
+			startBatch();
+		}
+		dispatch(batchUserIds, batchResults);
+	}
+
+	/** Guarded by this. */
+	private void startBatch() {
+		userIds = new int[maxBatchSize];
+		results = new ArrayList<>(maxBatchSize);
+		generation++;
+	}
+
+	private void dispatch(int[] batchUserIds, List<CompletableFuture<String>> batchResults) {
+		int size = batchResults.size();
+		int[] loadUserIds = size == batchUserIds.length ? batchUserIds : Arrays.copyOf(batchUserIds, size);
+		batches.increment();
+		users.add(size);
+		try {
+			loader.load(loadUserIds, batchResults);
+		} catch (RuntimeException e) {
+			for (CompletableFuture<String> result : batchResults) {
+				result.completeExceptionally(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.springboot.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.springboot.property.SegmentResilienceProperty;
+
+/**
+ * Caps the calls to the user_segment service in flight at once. A call over the cap is
+ * refused immediately rather than queued, so a slow segment service holds at most
+ * that many request threads.
+ */
+@Component
+public class SegmentBulkhead {
+
+	private final Semaphore permits;
+
+	private final LongAdder rejected = new LongAdder();
+
+	@Autowired
+	public SegmentBulkhead(SegmentResilienceProperty property) {
+		this.permits = new Semaphore(Math.max(1, property.getMaxConcurrentCalls()));
+	}
+
+	/** Takes a permit if one is free; every permit taken must be {@link #release() released}. */
+	public boolean tryAcquire() {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+		rejected.increment();
+		return false;
+	}
+
+	public void release() {
+		permits.release();
+	}
+
+	public int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+
+	/** Calls refused because the bulkhead was full. */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+}
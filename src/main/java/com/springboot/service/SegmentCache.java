@@ -0,0 +1,208 @@
+package com.springboot.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.springboot.property.SegmentCacheProperty;
+import com.springboot.util.IntLruMap;
+
+/**
+ * Bounded LRU cache of user_id to segment with TTL expiry. A {@code null} segment from
+ * the loader means the service does not know the user (a 400 or 404 answer) and is kept
+ * as a negative entry for the shorter negative TTL, so such a user does not hit the
+ * segment service on every request. A 5xx answer for the user is kept for the negative
+ * TTL too, through {@link #putFailure(int)}: lookups fail fast with a
+ * {@link SegmentUnavailableException} until it expires, so callers answer their fallback
+ * without asking the service again. Any other loader failure caches nothing.
+ * <p>
+ * Entries are keyed by the primitive user_id, so a hit neither boxes nor allocates. They
+ * are spread over independently locked stripes, each an LRU of its share of the maximum
+ * size, so concurrent lookups of different users rarely contend; eviction is least
+ * recently used within a stripe. Caches too small to give every stripe
+ * {@value #MIN_STRIPE_SIZE} entries keep a single stripe.
+ */
+@Component
+public class SegmentCache {
+
+	private static final int MIN_STRIPE_SIZE = 1024;
+
+	private static final int MAX_STRIPES = 64;
+
+	private final int maxSize;
+
+	private final long ttlNanos;
+
+	private final long negativeTtlNanos;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	/** Each stripe is its own lock. */
+	private final IntLruMap<Entry>[] stripes;
+
+	/** Shift taking the stripe from the top bits of the user_id's hash; unused with one stripe. */
+	private final int stripeShift;
+
+	@Autowired
+	@SuppressWarnings("unchecked")
+	public SegmentCache(SegmentCacheProperty property) {
+		this.maxSize = property.getMaxSize();
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(property.getTtlMillis());
+		this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(property.getNegativeTtlMillis());
+		int count = 1;
+		while (count < MAX_STRIPES && maxSize / (count * 2) >= MIN_STRIPE_SIZE) {
+			count <<= 1;
+		}
+		this.stripes = new IntLruMap[count];
+		int size = Math.max(0, maxSize);
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new IntLruMap<>(size / count + (i < size % count ? 1 : 0));
+		}
+		this.stripeShift = 32 - Integer.numberOfTrailingZeros(count);
+	}
+
+	/**
+	 * Returns the cached segment for the user, calling the loader on a miss or after
+	 * expiry. The loader runs outside the cache lock.
+	 */
+	public String get(int userId, IntFunction<String> loader) {
+		long now = System.nanoTime();
+		Entry entry = lookup(userId, now);
+		if (entry != null) {
+			return entry.segment(userId);
+		}
+		String segment = loader.apply(userId);
+		put(userId, segment, now);
+		return segment;
+	}
+
+	/**
+	 * Asynchronous form of {@link #get(int, IntFunction)}: a hit completes immediately,
+	 * a miss is cached when the loader's future completes.
+	 */
+	public CompletableFuture<String> getAsync(int userId, IntFunction<CompletableFuture<String>> loader) {
+		long now = System.nanoTime();
+		Entry entry = lookup(userId, now);
+		if (entry != null) {
+			if (entry.failed) {
+				CompletableFuture<String> failed = new CompletableFuture<>();
+				failed.completeExceptionally(entry.failure(userId));
+				return failed;
+			}
+			return CompletableFuture.completedFuture(entry.segment);
+		}
+		return loader.apply(userId).thenApply(segment -> {
+			put(userId, segment, now);
+			return segment;
+		});
+	}
+
+	/**
+	 * Remembers that the segment service failed to answer for the user (a 5xx answer) for
+	 * the negative TTL.
+	 */
+	public void putFailure(int userId) {
+		put(userId, new Entry(null, System.nanoTime() + negativeTtlNanos, true));
+	}
+
+	private Entry lookup(int userId, long now) {
+		IntLruMap<Entry> entries = stripe(userId);
+		synchronized (entries) {
+			Entry entry = entries.get(userId);
+			if (entry != null) {
+				if (entry.expiresAt - now > 0) {
+					hits.increment();
+					return entry;
+				}
+				entries.remove(userId);
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	private void put(int userId, String segment, long now) {
+		put(userId, new Entry(segment, now + (segment == null ? negativeTtlNanos : ttlNanos), false));
+	}
+
+	private void put(int userId, Entry entry) {
+		if (maxSize <= 0) {
+			return;
+		}
+		IntLruMap<Entry> entries = stripe(userId);
+		synchronized (entries) {
+			if (entries.put(userId, entry)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	private IntLruMap<Entry> stripe(int userId) {
+		return stripes.length == 1 ? stripes[0] : stripes[(userId * 0x9E3779B9) >>> stripeShift];
+	}
+
+	public void invalidateAll() {
+		for (IntLruMap<Entry> entries : stripes) {
+			synchronized (entries) {
+				entries.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (IntLruMap<Entry> entries : stripes) {
+			synchronized (entries) {
+				size += entries.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private static final class Entry {
+
+		private final String segment;
+
+		private final long expiresAt;
+
+		/** The service failed to answer for the user; {@link #segment} is unused. */
+		private final boolean failed;
+
+		private Entry(String segment, long expiresAt, boolean failed) {
+			this.segment = segment;
+			this.expiresAt = expiresAt;
+			this.failed = failed;
+		}
+
+		private String segment(int userId) {
+			if (failed) {
+				throw failure(userId);
+			}
+			return segment;
+		}
+
+		private SegmentUnavailableException failure(int userId) {
+			return new SegmentUnavailableException("user_segment failed recently for user " + userId);
+		}
+	}
+}
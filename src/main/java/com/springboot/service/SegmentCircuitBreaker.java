@@ -0,0 +1,161 @@
+package com.springboot.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.springboot.property.SegmentResilienceProperty;
+
+/**
+ * Circuit breaker for the user_segment service. While closed, the outcomes of the most
+ * recent calls are kept in a sliding window; once the window holds enough calls and
+ * their failure rate reaches the threshold, the circuit opens and calls are refused
+ * without touching the network. After the open period one probe call is let through
+ * (half-open): its success closes the circuit, its failure opens it again.
+ * <p>
+ * Each permit carries the generation of the circuit it was granted in, and every change
+ * of state starts a new generation. Outcomes are only counted for permits of the
+ * current generation, so a call that started before the circuit opened cannot close it
+ * by finishing late; only the probe decides.
+ */
+@Component
+public class SegmentCircuitBreaker {
+
+	private static final Logger log = LoggerFactory.getLogger(SegmentCircuitBreaker.class);
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/** Returned by {@link #tryAcquire()} when the call is refused. */
+	public static final long REJECTED = -1;
+
+	private final int failureRateThreshold;
+
+	private final int minimumCalls;
+
+	private final long openNanos;
+
+	/** Outcome of each call in the window, {@code true} for a failure; a ring buffer. */
+	private final boolean[] window;
+
+	private int next;
+
+	private int calls;
+
+	private int failures;
+
+	private volatile State state = State.CLOSED;
+
+	private volatile long openedAt;
+
+	/** Bumped on every change of state; only written under the lock. */
+	private volatile long generation;
+
+	private final LongAdder rejected = new LongAdder();
+
+	@Autowired
+	public SegmentCircuitBreaker(SegmentResilienceProperty property) {
+		this.failureRateThreshold = property.getFailureRateThreshold();
+		this.minimumCalls = Math.max(1, property.getMinimumCalls());
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(property.getOpenMillis());
+		this.window = new boolean[Math.max(1, property.getSlidingWindowSize())];
+	}
+
+	/**
+	 * A permit for a call to the segment service now, or {@link #REJECTED}. Every
+	 * permitted call must be followed by {@link #onSuccess(long)} or
+	 * {@link #onFailure(long)} with its permit.
+	 */
+	public long tryAcquire() {
+		long permit = generation;
+		State current = state;
+		if (current == State.CLOSED) {
+			return permit;
+		}
+		if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+			synchronized (this) {
+				if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+					transition(State.HALF_OPEN);
+					log.info("segment circuit half-open, probing the segment service");
+					return generation;
+				}
+			}
+		}
+		rejected.increment();
+		return REJECTED;
+	}
+
+	public synchronized void onSuccess(long permit) {
+		if (permit != generation) {
+			return;
+		}
+		if (state == State.HALF_OPEN) {
+			close();
+		} else if (state == State.CLOSED) {
+			record(false);
+		}
+	}
+
+	public synchronized void onFailure(long permit) {
+		if (permit != generation) {
+			return;
+		}
+		if (state == State.HALF_OPEN) {
+			open();
+		} else if (state == State.CLOSED) {
+			record(true);
+			if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+				open();
+			}
+		}
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/** Calls refused because the circuit was open or a probe was already in flight. */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	private void record(boolean failed) {
+		if (calls == window.length) {
+			if (window[next]) {
+				failures--;
+			}
+		} else {
+			calls++;
+		}
+		window[next] = failed;
+		if (failed) {
+			failures++;
+		}
+		next = (next + 1) % window.length;
+	}
+
+	private void open() {
+		log.warn("segment circuit open for {} ms after {} failures in {} calls", TimeUnit.NANOSECONDS.toMillis(openNanos),
+				failures, calls);
+		openedAt = System.nanoTime();
+		transition(State.OPEN);
+	}
+
+	private void close() {
+		log.info("segment circuit closed, the probe call succeeded");
+		next = 0;
+		calls = 0;
+		failures = 0;
+		transition(State.CLOSED);
+	}
+
+	private void transition(State next) {
+		generation++;
+		state = next;
+	}
+}
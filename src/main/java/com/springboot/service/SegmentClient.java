@@ -0,0 +1,99 @@
+package com.springboot.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.property.SegmentClientProperty;
+
+/**
+ * HTTP client for the user_segment service. Connections are pooled and kept alive
+ * between calls, and every call is bounded by the configured connect, read and
+ * pool-wait timeouts. Bodies are read with the application's shared Jackson factory
+ * through a {@link SegmentResponseParser}.
+ */
+@Component
+public class SegmentClient implements Closeable {
+
+	static final String USER_SEGMENT_PATH = "/api/v1/user_segment";
+
+	private final String segmentUri;
+
+	private final CloseableHttpClient httpClient;
+
+	private final SegmentResponseParser responseParser;
+
+	@Autowired
+	public SegmentClient(SegmentClientProperty property, ObjectMapper objectMapper) {
+		this.segmentUri = property.getBaseUrl() + USER_SEGMENT_PATH + "?user_id=";
+		this.responseParser = new SegmentResponseParser(objectMapper.getFactory());
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(property.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(property.getMaxConnections());
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(property.getConnectTimeoutMillis())
+				.setSocketTimeout(property.getReadTimeoutMillis())
+				.setConnectionRequestTimeout(property.getConnectionRequestTimeoutMillis())
+				.build();
+
+		long keepAliveMillis = property.getKeepAliveMillis();
+		this.httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> keepAliveMillis)
+				.evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+				.evictExpiredConnections()
+				.build();
+	}
+
+	/**
+	 * Fetches the segment of a user. A 4xx answer means the service does not know the
+	 * user and yields {@code null}; 5xx answers and transport failures are thrown.
+	 */
+	public String getSegment(int userId) throws IOException {
+		HttpGet request = new HttpGet(segmentUri + userId);
+		request.setHeader(HttpHeaders.ACCEPT, "application/json");
+
+		try (CloseableHttpResponse response = httpClient.execute(request)) {
+			HttpEntity entity = response.getEntity();
+			try {
+				int statusCode = response.getStatusLine().getStatusCode();
+				if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+					throw new HttpResponseException(statusCode, "user_segment failed for user " + userId);
+				}
+				if (statusCode != HttpStatus.SC_OK || entity == null) {
+					return null;
+				}
+				try (InputStream content = entity.getContent()) {
+					return responseParser.readSegment(content);
+				}
+			} finally {
+				// drain whatever is left so the connection goes back to the pool
+				EntityUtils.consumeQuietly(entity);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+}
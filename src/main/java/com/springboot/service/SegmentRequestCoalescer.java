@@ -0,0 +1,100 @@
+package com.springboot.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight for segment lookups: while a lookup for a user is in flight, further
+ * lookups for the same user wait for its result instead of issuing their own request.
+ * Blocking and asynchronous callers share the same in-flight lookups.
+ */
+@Component
+public class SegmentRequestCoalescer {
+
+	private final ConcurrentMap<Integer, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+	private final LongAdder loads = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	public String get(int userId, IntFunction<String> loader) {
+		CompletableFuture<String> lookup = new CompletableFuture<>();
+		CompletableFuture<String> current = inFlight.putIfAbsent(userId, lookup);
+		if (current != null) {
+			coalesced.increment();
+			try {
+				return current.join();
+			} catch (CompletionException e) {
+				// waiters see the loader's own exception, as the caller that ran it does
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+
+		loads.increment();
+		try {
+			String segment = loader.apply(userId);
+			inFlight.remove(userId, lookup);
+			lookup.complete(segment);
+			return segment;
+		} catch (RuntimeException | Error e) {
+			inFlight.remove(userId, lookup);
+			lookup.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	public CompletableFuture<String> getAsync(int userId, IntFunction<CompletableFuture<String>> loader) {
+		CompletableFuture<String> lookup = new CompletableFuture<>();
+		CompletableFuture<String> current = inFlight.putIfAbsent(userId, lookup);
+		if (current != null) {
+			coalesced.increment();
+			return current;
+		}
+
+		loads.increment();
+		CompletableFuture<String> load;
+		try {
+			load = loader.apply(userId);
+			if (load == null) {
+				throw new IllegalStateException("Segment loader returned no lookup for user " + userId);
+			}
+		} catch (RuntimeException | Error e) {
+			// a loader that fails before returning must not leave its waiters stuck
+			inFlight.remove(userId, lookup);
+			lookup.completeExceptionally(e);
+			return lookup;
+		}
+		load.whenComplete((segment, failure) -> {
+			inFlight.remove(userId, lookup);
+			if (failure != null) {
+				lookup.completeExceptionally(failure);
+			} else {
+				lookup.complete(segment);
+			}
+		});
+		return lookup;
+	}
+
+	/** Lookups that actually went to the segment service. */
+	public long getLoadCount() {
+		return loads.sum();
+	}
+
+	/** Lookups that were served by joining another caller's in-flight lookup. */
+	public long getCoalescedCount() {
+		return coalesced.sum();
+	}
+
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+}
@@ -0,0 +1,75 @@
+package com.springboot.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the segment out of a user_segment body such as {@code {"segment":"p1"}} with
+ * the streaming parser, without binding a {@code SegmentResponse} or building a tree.
+ * Thread-safe; the {@link JsonFactory} is shared and its symbol table interns field
+ * names, so a call allocates little beyond the parser and the segment string.
+ */
+public class SegmentResponseParser {
+
+	static final String SEGMENT_FIELD = "segment";
+
+	static final String SEGMENTS_FIELD = "segments";
+
+	private final JsonFactory jsonFactory;
+
+	public SegmentResponseParser(JsonFactory jsonFactory) {
+		this.jsonFactory = jsonFactory;
+	}
+
+	/** Returns the segment, or {@code null} when the body carries none. */
+	public String readSegment(InputStream content) throws IOException {
+		try (JsonParser parser = jsonFactory.createParser(content)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if (SEGMENT_FIELD.equals(field)) {
+					return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+				}
+				parser.skipChildren();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a bulk body such as {@code {"segments":{"1":"p1","2":"p2"}}} into a map of
+	 * user_id to segment. Users the service does not know are absent from the map, or
+	 * mapped to {@code null}.
+	 */
+	public Map<Integer, String> readSegments(InputStream content) throws IOException {
+		Map<Integer, String> segments = new HashMap<>();
+		try (JsonParser parser = jsonFactory.createParser(content)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return segments;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if (SEGMENTS_FIELD.equals(field) && value == JsonToken.START_OBJECT) {
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						int userId = Integer.parseInt(parser.getCurrentName());
+						segments.put(userId, parser.nextToken() == JsonToken.VALUE_STRING ? parser.getText() : null);
+						parser.skipChildren();
+					}
+				} else {
+					parser.skipChildren();
+				}
+			}
+			return segments;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package com.springboot.service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.HttpResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.springboot.model.SegmentRegistry;
+import com.springboot.property.SegmentBatchProperty;
+import com.springboot.property.SegmentResilienceProperty;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the customer segment of a user, going to the user_segment service only
+ * when the {@link SegmentCache} has no live entry. Concurrent misses for the same user
+ * share one request through the {@link SegmentRequestCoalescer}. Returns {@code null}
+ * when the segment is unknown.
+ * <p>
+ * Calls to the service pass a {@link SegmentBulkhead} and a {@link SegmentCircuitBreaker}.
+ * When a call is refused or fails, the lookup answers the configured fallback segment,
+ * by default {@code null} so the cart gets no discount. Refusals and transport failures
+ * are not cached, and during an outage the open circuit refuses calls without waiting
+ * on the network; a 5xx answer for a user is cached for the negative TTL, so that user
+ * gets the fallback without asking the service again.
+ * <p>
+ * Many users can be resolved at once, or prefetched ahead of their first apply_offer:
+ * their cache misses are micro-batched by a {@link SegmentBatcher} into one call to the
+ * service's bulk lookup, or into parallel single-user calls when it has none.
+ */
+@Service
+public class SegmentService {
+
+	private static final Logger log = LoggerFactory.getLogger(SegmentService.class);
+
+	/** Full batches one prefetch request may start. */
+	private static final int MAX_PREFETCH_BATCHES = 10;
+
+	@Autowired
+	private SegmentCache segmentCache;
+
+	@Autowired
+	private SegmentRequestCoalescer segmentRequestCoalescer;
+
+	@Autowired
+	private SegmentClient segmentClient;
+
+	@Autowired
+	private ReactiveSegmentClient reactiveSegmentClient;
+
+	@Autowired
+	private SegmentBulkhead bulkhead;
+
+	@Autowired
+	private SegmentCircuitBreaker circuitBreaker;
+
+	@Autowired
+	private SegmentResilienceProperty resilienceProperty;
+
+	@Autowired
+	private SegmentBatchProperty batchProperty;
+
+	@Autowired
+	private CartOfferMetrics metrics;
+
+	private String fallbackSegment;
+
+	private SegmentBatcher batcher;
+
+	private final IntFunction<String> fetch = this::fetchSegment;
+
+	private final IntFunction<CompletableFuture<String>> asyncFetch = this::fetchSegmentAsync;
+
+	private final IntFunction<String> loader = userId -> segmentRequestCoalescer.get(userId, fetch);
+
+	private final IntFunction<CompletableFuture<String>> asyncLoader = userId -> segmentRequestCoalescer.getAsync(userId,
+			asyncFetch);
+
+	private final IntFunction<CompletableFuture<String>> batchedFetch = userId -> batcher.submit(userId);
+
+	private final IntFunction<CompletableFuture<String>> batchedLoader = userId -> segmentRequestCoalescer.getAsync(userId,
+			batchedFetch);
+
+	@PostConstruct
+	public void init() {
+		String fallback = resilienceProperty.getFallbackSegment();
+		if (fallback != null && !fallback.isEmpty()) {
+			if (!SegmentRegistry.contains(fallback)) {
+				throw new IllegalArgumentException("Unknown fallback segment: " + fallback);
+			}
+			fallbackSegment = SegmentRegistry.intern(fallback);
+		}
+		batcher = new SegmentBatcher(batchProperty.getMaxBatchSize(), batchProperty.getMaxWaitMillis(), this::loadBatch);
+	}
+
+	@PreDestroy
+	public void close() {
+		batcher.close();
+	}
+
+	public String getSegment(int userId) {
+		try {
+			return segmentCache.get(userId, loader);
+		} catch (SegmentUnavailableException e) {
+			return fallbackSegment;
+		}
+	}
+
+	/**
+	 * Non-blocking lookup; on a cache miss the calling thread is released while the
+	 * segment service answers.
+	 */
+	public CompletableFuture<String> getSegmentAsync(int userId) {
+		return segmentCache.getAsync(userId, batchProperty.isBatchLookups() ? batchedLoader : asyncLoader)
+				.exceptionally(e -> fallbackSegment);
+	}
+
+	/**
+	 * Resolves many users at once, looking up the cache misses in batches. Unknown users
+	 * map to {@code null}, users whose lookup failed to the fallback segment.
+	 */
+	public Map<Integer, String> getSegments(Collection<Integer> userIds) {
+		Map<Integer, CompletableFuture<String>> lookups = new HashMap<>();
+		for (Integer userId : userIds) {
+			lookups.computeIfAbsent(userId, this::getSegmentBatched);
+		}
+		Map<Integer, String> segments = new HashMap<>();
+		lookups.forEach((userId, lookup) -> segments.put(userId, lookup.join()));
+		return segments;
+	}
+
+	/**
+	 * Warms the cache for users about to apply offers, e.g. on session start. Returns at
+	 * once; the future completes when every lookup has, failed ones included. Null users
+	 * are skipped.
+	 */
+	public CompletableFuture<Void> prefetch(Collection<Integer> userIds) {
+		return CompletableFuture.allOf(userIds.stream().filter(Objects::nonNull).distinct()
+				.map(this::getSegmentBatched).toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Checks the users of a prefetch request: at most {@value #MAX_PREFETCH_BATCHES} full
+	 * batches of them, none null or negative. Returns why the request is rejected, or
+	 * {@code null}.
+	 */
+	public String validatePrefetch(Collection<Integer> userIds) {
+		int maxUsers = batchProperty.getMaxBatchSize() * MAX_PREFETCH_BATCHES;
+		if (userIds.size() > maxUsers) {
+			return "At most " + maxUsers + " user_ids can be prefetched at once";
+		}
+		for (Integer userId : userIds) {
+			if (userId == null || userId < 0) {
+				return "Invalid user_id: " + userId;
+			}
+		}
+		return null;
+	}
+
+	private CompletableFuture<String> getSegmentBatched(int userId) {
+		return segmentCache.getAsync(userId, batchedLoader).exceptionally(e -> fallbackSegment);
+	}
+
+	private String fetchSegment(int userId) {
+		long permit = acquire();
+		long start = System.nanoTime();
+		try {
+			String segment = SegmentRegistry.intern(segmentClient.getSegment(userId));
+			circuitBreaker.onSuccess(permit);
+			metrics.recordSegmentLookup(start, segment, null);
+			return segment;
+		} catch (IOException | RuntimeException e) {
+			circuitBreaker.onFailure(permit);
+			if (isServerError(e)) {
+				segmentCache.putFailure(userId);
+			}
+			metrics.recordSegmentLookup(start, null, e);
+			log.warn("user_segment lookup failed for user {}: {}", userId, e.toString());
+			throw new SegmentUnavailableException("user_segment lookup failed for user " + userId, e);
+		} finally {
+			bulkhead.release();
+		}
+	}
+
+	private CompletableFuture<String> fetchSegmentAsync(int userId) {
+		long permit;
+		try {
+			permit = acquire();
+		} catch (SegmentUnavailableException e) {
+			CompletableFuture<String> refused = new CompletableFuture<>();
+			refused.completeExceptionally(e);
+			return refused;
+		}
+		long start = System.nanoTime();
+		return Mono.defer(() -> reactiveSegmentClient.getSegment(userId)).map(SegmentRegistry::intern).toFuture()
+				.whenComplete((segment, e) -> {
+					bulkhead.release();
+					if (e == null) {
+						circuitBreaker.onSuccess(permit);
+					} else {
+						circuitBreaker.onFailure(permit);
+						if (isServerError(e)) {
+							segmentCache.putFailure(userId);
+						}
+						log.warn("user_segment lookup failed for user {}: {}", userId, e.toString());
+					}
+					metrics.recordSegmentLookup(start, segment, e);
+				});
+	}
+
+	/**
+	 * Loads one batch with a single call to the bulk lookup, which counts as one call for
+	 * the bulkhead and circuit breaker. Without a bulk lookup every user is fetched on its
+	 * own, all calls in flight together.
+	 */
+	private void loadBatch(int[] userIds, List<CompletableFuture<String>> results) {
+		if (!reactiveSegmentClient.hasBulkLookup()) {
+			for (int i = 0; i < userIds.length; i++) {
+				CompletableFuture<String> result = results.get(i);
+				fetchSegmentAsync(userIds[i]).whenComplete((segment, e) -> {
+					if (e != null) {
+						result.completeExceptionally(e);
+					} else {
+						result.complete(segment);
+					}
+				});
+			}
+			return;
+		}
+		long permit = acquire();
+		long start = System.nanoTime();
+		Mono.defer(() -> reactiveSegmentClient.getSegments(userIds)).toFuture().whenComplete((segments, e) -> {
+			bulkhead.release();
+			if (e == null) {
+				circuitBreaker.onSuccess(permit);
+			} else {
+				circuitBreaker.onFailure(permit);
+				log.warn("bulk user_segment lookup failed for {} users: {}", userIds.length, e.toString());
+			}
+			metrics.recordSegmentBatch(start, userIds.length, e);
+			boolean serverError = e != null && isServerError(e);
+			for (int i = 0; i < userIds.length; i++) {
+				if (e != null) {
+					if (serverError) {
+						segmentCache.putFailure(userIds[i]);
+					}
+					results.get(i).completeExceptionally(e);
+				} else {
+					results.get(i).complete(SegmentRegistry.intern(segments.get(userIds[i])));
+				}
+			}
+		});
+	}
+
+	/** Whether the segment service answered with a 5xx status, rather than not answering. */
+	private static boolean isServerError(Throwable e) {
+		Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		return cause instanceof HttpResponseException && ((HttpResponseException) cause).getStatusCode() >= 500;
+	}
+
+	/**
+	 * Takes a bulkhead permit, then asks the circuit breaker, so a refused call holds
+	 * nothing. Returns the circuit breaker's permit for reporting the outcome.
+	 */
+	private long acquire() {
+		if (!bulkhead.tryAcquire()) {
+			throw new SegmentUnavailableException("too many user_segment calls in flight");
+		}
+		long permit = circuitBreaker.tryAcquire();
+		if (permit == SegmentCircuitBreaker.REJECTED) {
+			bulkhead.release();
+			throw new SegmentUnavailableException("user_segment circuit is open");
+		}
+		return permit;
+	}
+}
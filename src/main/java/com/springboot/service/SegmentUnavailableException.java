@@ -0,0 +1,19 @@
+package com.springboot.service;
+
+/**
+ * The user_segment service could not be asked or did not answer. Refusals by the
+ * circuit breaker or bulkhead carry no stack trace, since they are thrown on every
+ * lookup during an outage.
+ */
+public class SegmentUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public SegmentUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public SegmentUnavailableException(String message) {
+		super(message, null, false, false);
+	}
+}
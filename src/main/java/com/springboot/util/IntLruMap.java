@@ -0,0 +1,216 @@
+package com.springboot.util;
+
+import java.util.Arrays;
+
+/**
+ * Bounded map from int keys to values that evicts the least recently used entry once
+ * full. Entries live in flat arrays, a pool of slots linked in access order plus an
+ * open-addressing index of slot numbers, so lookups neither box the key nor allocate.
+ * Not thread-safe.
+ */
+public final class IntLruMap<V> {
+
+	private static final int NONE = -1;
+
+	private static final int MIN_SLOTS = 16;
+
+	private final int maxSize;
+
+	/** Slot number plus one for each occupied position, 0 when free; linear probing. */
+	private int[] index;
+
+	private int[] keys;
+
+	private Object[] values;
+
+	private int[] older;
+
+	private int[] newer;
+
+	/** Least recently used slot. */
+	private int eldest = NONE;
+
+	/** Most recently used slot. */
+	private int youngest = NONE;
+
+	/** Free slots chained through {@link #newer}. */
+	private int free = NONE;
+
+	private int used;
+
+	private int size;
+
+	public IntLruMap(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		allocate(Math.min(maxSize, MIN_SLOTS));
+	}
+
+	/** The key's value, {@code null} if it has none; marks the entry as most recently used. */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int position = find(key);
+		if (position == NONE) {
+			return null;
+		}
+		int slot = index[position] - 1;
+		touch(slot);
+		return (V) values[slot];
+	}
+
+	/**
+	 * Maps the key to the value as the most recently used entry. Returns whether the
+	 * eldest entry was evicted to make room.
+	 */
+	public boolean put(int key, V value) {
+		if (maxSize == 0) {
+			return false;
+		}
+		int position = find(key);
+		if (position != NONE) {
+			int slot = index[position] - 1;
+			values[slot] = value;
+			touch(slot);
+			return false;
+		}
+		boolean evicted = false;
+		if (size == maxSize) {
+			removeAt(find(keys[eldest]));
+			evicted = true;
+		} else if (free == NONE && used == keys.length) {
+			allocate((int) Math.min((long) keys.length * 2, maxSize));
+		}
+
+		int slot;
+		if (free != NONE) {
+			slot = free;
+			free = newer[slot];
+		} else {
+			slot = used++;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		link(slot);
+		insertIndex(key, slot);
+		size++;
+		return evicted;
+	}
+
+	/** Removes the key's entry, returning its value or {@code null} if it had none. */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int position = find(key);
+		if (position == NONE) {
+			return null;
+		}
+		V value = (V) values[index[position] - 1];
+		removeAt(position);
+		return value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(index, 0);
+		Arrays.fill(values, null);
+		eldest = youngest = free = NONE;
+		used = 0;
+		size = 0;
+	}
+
+	private int find(int key) {
+		int mask = index.length - 1;
+		for (int i = IntObjectMap.hash(key) & mask;; i = (i + 1) & mask) {
+			int slot = index[i];
+			if (slot == 0) {
+				return NONE;
+			}
+			if (keys[slot - 1] == key) {
+				return i;
+			}
+		}
+	}
+
+	private void insertIndex(int key, int slot) {
+		int mask = index.length - 1;
+		int i = IntObjectMap.hash(key) & mask;
+		while (index[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		index[i] = slot + 1;
+	}
+
+	private void removeAt(int position) {
+		int slot = index[position] - 1;
+		unlink(slot);
+		values[slot] = null;
+		newer[slot] = free;
+		free = slot;
+		size--;
+
+		// backward-shift deletion keeps every probe chain unbroken without tombstones
+		int mask = index.length - 1;
+		int gap = position;
+		for (int i = (position + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+			int home = IntObjectMap.hash(keys[index[i] - 1]) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				index[gap] = index[i];
+				gap = i;
+			}
+		}
+		index[gap] = 0;
+	}
+
+	private void touch(int slot) {
+		if (slot != youngest) {
+			unlink(slot);
+			link(slot);
+		}
+	}
+
+	private void link(int slot) {
+		older[slot] = youngest;
+		newer[slot] = NONE;
+		if (youngest != NONE) {
+			newer[youngest] = slot;
+		} else {
+			eldest = slot;
+		}
+		youngest = slot;
+	}
+
+	private void unlink(int slot) {
+		int before = older[slot];
+		int after = newer[slot];
+		if (before != NONE) {
+			newer[before] = after;
+		} else {
+			eldest = after;
+		}
+		if (after != NONE) {
+			older[after] = before;
+		} else {
+			youngest = before;
+		}
+	}
+
+	/** Grows the slot pool to the given number of slots and rebuilds the index for it. */
+	private void allocate(int slots) {
+		int capacity = 2;
+		while (capacity < slots * 2) {
+			capacity <<= 1;
+		}
+		keys = keys == null ? new int[slots] : Arrays.copyOf(keys, slots);
+		values = values == null ? new Object[slots] : Arrays.copyOf(values, slots);
+		older = older == null ? new int[slots] : Arrays.copyOf(older, slots);
+		newer = newer == null ? new int[slots] : Arrays.copyOf(newer, slots);
+		index = new int[capacity];
+		for (int slot = eldest; slot != NONE; slot = newer[slot]) {
+			insertIndex(keys[slot], slot);
+		}
+	}
+}
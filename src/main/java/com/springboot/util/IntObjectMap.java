@@ -0,0 +1,137 @@
+package com.springboot.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map from int keys to non-null values with linear probing, so
+ * lookups neither box the key nor allocate. Writers must be serialised by the caller;
+ * readers need no lock and see every write that completed before their lookup. Entries
+ * are never removed, which suits indexes whose keys only ever accumulate.
+ */
+public final class IntObjectMap<V> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private volatile Table<V> table;
+
+	private int size;
+
+	public IntObjectMap() {
+		this(MIN_CAPACITY / 2);
+	}
+
+	public IntObjectMap(int expectedSize) {
+		this.table = new Table<>(capacityFor(expectedSize));
+	}
+
+	/** The key's value, {@code null} if it has none. */
+	public V get(int key) {
+		return table.get(key);
+	}
+
+	public V getOrDefault(int key, V defaultValue) {
+		V value = table.get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	public void put(int key, V value) {
+		Objects.requireNonNull(value, "value");
+		Table<V> current = table;
+		if (current.put(key, value)) {
+			size++;
+			if (size * 2 > current.capacity()) {
+				table = current.resize(current.capacity() * 2);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void forEachValue(Consumer<? super V> action) {
+		table.forEachValue(action);
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * A slot's key is written before its value is published, and a slot never changes
+	 * key, so a reader that finds a value also sees the key it belongs to.
+	 */
+	private static final class Table<V> {
+
+		private final int[] keys;
+
+		private final AtomicReferenceArray<V> values;
+
+		private final int mask;
+
+		private Table(int capacity) {
+			this.keys = new int[capacity];
+			this.values = new AtomicReferenceArray<>(capacity);
+			this.mask = capacity - 1;
+		}
+
+		private int capacity() {
+			return keys.length;
+		}
+
+		private V get(int key) {
+			for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+				V value = values.get(i);
+				if (value == null || keys[i] == key) {
+					return value;
+				}
+			}
+		}
+
+		/** Returns whether the key is new. */
+		private boolean put(int key, V value) {
+			for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+				if (values.get(i) == null) {
+					keys[i] = key;
+					values.set(i, value);
+					return true;
+				}
+				if (keys[i] == key) {
+					values.set(i, value);
+					return false;
+				}
+			}
+		}
+
+		private Table<V> resize(int capacity) {
+			Table<V> resized = new Table<>(capacity);
+			for (int i = 0; i < keys.length; i++) {
+				V value = values.get(i);
+				if (value != null) {
+					resized.put(keys[i], value);
+				}
+			}
+			return resized;
+		}
+
+		private void forEachValue(Consumer<? super V> action) {
+			for (int i = 0; i < keys.length; i++) {
+				V value = values.get(i);
+				if (value != null) {
+					action.accept(value);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.springboot.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads (Java 21) from code compiled for Java 8: the executor
+ * factory is looked up reflectively, so the application still runs on older JVMs and
+ * only the virtual-thread mode needs a modern one.
+ */
+public final class VirtualThreads {
+
+	private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+	private VirtualThreads() {
+	}
+
+	private static Method findFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	public static boolean isSupported() {
+		return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * An executor that starts a new virtual thread for each task.
+	 *
+	 * @throws IllegalStateException when the running JVM has no virtual threads
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if (!isSupported()) {
+			throw new IllegalStateException(
+					"Virtual threads need Java 21 or later, running on Java " + System.getProperty("java.version"));
+		}
+		try {
+			return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+}
@@ -105,6 +105,13 @@ public class RestClient {
         }
     }
 
+    public static Response getRequest(ApiEndpoints endpoint) {
+        RequestSpecification reqSpec = given()
+            .basePath(endpoint.getEndpoint());
+
+        return getResponse(RequestType.GET, reqSpec);
+    }
+
     public static Response postRequest(ApiEndpoints endpoint, Object requestBody) {
         RequestSpecification reqSpec = given()
             .contentType("application/json")
@@ -114,6 +121,15 @@ public class RestClient {
         return getResponse(RequestType.POST, reqSpec);
     }
 
+    public static Response postRequest(ApiEndpoints endpoint, String requestBody, String contentType) {
+        RequestSpecification reqSpec = given()
+            .contentType(contentType)
+            .body(requestBody)
+            .basePath(endpoint.getEndpoint());
+
+        return getResponse(RequestType.POST, reqSpec);
+    }
+
     public static void validateStatusCode(Response response, int expectedStatusCode) {
         int actualStatusCode = response.getStatusCode();
         if (actualStatusCode != expectedStatusCode) {
@@ -2,7 +2,12 @@ package com.springboot.enums;
 
 public enum ApiEndpoints {
     CREATE_OFFER("/api/v1/offer"),
+    CREATE_OFFERS_BULK("/api/v1/offer/bulk"),
     APPLY_OFFER("/api/v1/cart/apply_offer"),
+    APPLY_OFFER_ASYNC("/api/v1/cart/apply_offer/async"),
+    APPLY_OFFER_BATCH("/api/v1/cart/apply_offer/batch"),
+    PREFETCH_SEGMENTS("/api/v1/segment/prefetch"),
+    PROMETHEUS("/actuator/prometheus"),
     GET_USER_SEGMENT("/api/v1/user/segment"); // For future use
 
     private final String endpoint;
@@ -0,0 +1,126 @@
+package com.springboot.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.CartOfferApplication;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.OfferRequest;
+import com.springboot.stub.SegmentServiceStub;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Capacity-planning run without Docker: starts the in-JVM {@link SegmentServiceStub}
+ * and the application against it, then drives apply_offer and offer creation at a
+ * target rate and prints p50/p99/p999 latency and throughput per endpoint.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.springboot.load.CartOfferLoadTest -Dload.rps=2000 -Dstub.latencyMillis=20
+ * </pre>
+ *
+ * System properties: {@code load.rps} (default 500), {@code load.durationSeconds} (30),
+ * {@code load.workers} (64), {@code load.offerWeight} and {@code load.applyWeight}
+ * (1 and 9), {@code load.restaurants} (1000), {@code load.users} (10; the stub knows
+ * users 1-10, higher ids get a 404), {@code load.cacheSegments} (true; false sends every
+ * lookup to the stub), {@code stub.latencyMillis} (5), {@code stub.errorRate} (0.01),
+ * {@code app.port} (9101). Set {@code load.baseUrl} to load an already running
+ * application instead of starting one.
+ */
+public class CartOfferLoadTest {
+
+    private static final String OFFER_PATH = "/api/v1/offer";
+    private static final String APPLY_OFFER_PATH = "/api/v1/cart/apply_offer";
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("load.rps", 500);
+        int durationSeconds = Integer.getInteger("load.durationSeconds", 30);
+        int workers = Integer.getInteger("load.workers", 64);
+        int offerWeight = Integer.getInteger("load.offerWeight", 1);
+        int applyWeight = Integer.getInteger("load.applyWeight", 9);
+        int restaurants = Integer.getInteger("load.restaurants", 1000);
+        int users = Integer.getInteger("load.users", 10);
+        boolean cacheSegments = Boolean.parseBoolean(System.getProperty("load.cacheSegments", "true"));
+        String baseUrl = System.getProperty("load.baseUrl");
+
+        ConfigurableApplicationContext application = null;
+        try (SegmentServiceStub stub = SegmentServiceStub.start(0);
+             CloseableHttpClient httpClient = HttpClients.custom().setMaxConnTotal(workers).setMaxConnPerRoute(workers).build()) {
+            stub.setLatencyMillis(Long.getLong("stub.latencyMillis", 5));
+            stub.setErrorRate(Double.parseDouble(System.getProperty("stub.errorRate", "0.01")));
+
+            if (baseUrl == null) {
+                int port = Integer.getInteger("app.port", 9101);
+                List<String> appArgs = new ArrayList<>();
+                appArgs.add("--server.port=" + port);
+                appArgs.add("--segment.client.base-url=" + stub.getBaseUrl());
+                if (!cacheSegments) {
+                    appArgs.add("--segment.cache.ttl-millis=0");
+                    appArgs.add("--segment.cache.negative-ttl-millis=0");
+                }
+                application = SpringApplication.run(CartOfferApplication.class, appArgs.toArray(new String[0]));
+                baseUrl = "http://localhost:" + port;
+            }
+
+            ObjectMapper mapper = new ObjectMapper();
+            String target = baseUrl;
+            for (int restaurant = 1; restaurant <= restaurants; restaurant++) {
+                post(httpClient, target + OFFER_PATH, mapper.writeValueAsBytes(offer(restaurant - 1, restaurants)));
+            }
+
+            List<LoadReport> reports = new LoadGenerator(rps, workers)
+                    .endpoint("apply_offer", applyWeight, sequence -> post(httpClient, target + APPLY_OFFER_PATH,
+                            mapper.writeValueAsBytes(cart(sequence, restaurants, users))))
+                    .endpoint("offer", offerWeight, sequence -> post(httpClient, target + OFFER_PATH,
+                            mapper.writeValueAsBytes(offer(sequence, restaurants))))
+                    .run(durationSeconds * 1000L);
+
+            System.out.printf("target %d req/s for %ds with %d workers against %s%n", rps, durationSeconds, workers, target);
+            for (LoadReport report : reports) {
+                System.out.println(report);
+            }
+            System.out.printf("segment stub: requests=%d injectedErrors=%d connections=%d%n", stub.getRequestCount(),
+                    stub.getInjectedErrorCount(), stub.getConnectionCount());
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static boolean post(CloseableHttpClient httpClient, String url, byte[] body) throws IOException {
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() == 200;
+        }
+    }
+
+    private static OfferRequest offer(long sequence, int restaurants) {
+        int restaurantId = (int) (sequence % restaurants) + 1;
+        boolean flat = sequence % 2 == 0;
+        return new OfferRequest(restaurantId, flat ? "FLATX" : "PERCENTAGE", flat ? 10 : 15,
+                Collections.singletonList(SEGMENTS[(int) (sequence % SEGMENTS.length)]));
+    }
+
+    private static ApplyOfferRequest cart(long sequence, int restaurants, int users) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(200);
+        applyRequest.setRestaurant_id((int) (sequence * 31 % restaurants) + 1);
+        applyRequest.setUser_id((int) (sequence % users) + 1);
+        return applyRequest;
+    }
+}
@@ -0,0 +1,54 @@
+package com.springboot.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records request latencies in microseconds into a preallocated array, so recording
+ * costs no allocation while the load is running. Samples beyond the capacity are
+ * counted but not kept.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long latencyMicros, boolean success) {
+        int index = recorded.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = latencyMicros;
+        }
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public int getCount() {
+        return recorded.get();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /** Latency percentiles in microseconds, in the order asked for; call once recording has stopped. */
+    public long[] percentiles(double... percentiles) {
+        long[] sorted = Arrays.copyOf(samples, Math.min(recorded.get(), samples.length));
+        Arrays.sort(sorted);
+        long[] values = new long[percentiles.length];
+        if (sorted.length == 0) {
+            return values;
+        }
+        for (int i = 0; i < percentiles.length; i++) {
+            int rank = (int) Math.ceil(percentiles[i] * sorted.length / 100) - 1;
+            values[i] = sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,107 @@
+package com.springboot.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: issues requests on a fixed schedule at the target rate,
+ * whatever the response times, and measures each latency from the moment the request
+ * was due rather than the moment a worker got to it. A slow server therefore shows up
+ * as queueing in the percentiles instead of silently lowering the offered load.
+ * Requests are spread over the endpoints in proportion to their weights.
+ */
+public class LoadGenerator {
+
+    /** Latency samples kept per endpoint; later requests are still counted. */
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    /** One request against the system under test; returns whether it succeeded. */
+    @FunctionalInterface
+    public interface Step {
+        boolean execute(long sequence) throws Exception;
+    }
+
+    private final int targetRps;
+    private final int workers;
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    public LoadGenerator(int targetRps, int workers) {
+        if (targetRps <= 0 || workers <= 0) {
+            throw new IllegalArgumentException("targetRps and workers must be positive");
+        }
+        this.targetRps = targetRps;
+        this.workers = workers;
+    }
+
+    public LoadGenerator endpoint(String name, int weight, Step step) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive: " + name);
+        }
+        weights.put(name, weight);
+        steps.put(name, step);
+        return this;
+    }
+
+    /** Runs the load for the given duration and reports each endpoint, in registration order. */
+    public List<LoadReport> run(long durationMillis) throws InterruptedException {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("no endpoints registered");
+        }
+        List<String> names = new ArrayList<>(steps.keySet());
+        List<Integer> schedule = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            for (int w = 0; w < weights.get(names.get(i)); w++) {
+                schedule.add(i);
+            }
+        }
+        long totalRequests = Math.max(1, targetRps * durationMillis / 1000);
+        int capacity = (int) Math.min(MAX_SAMPLES, totalRequests);
+        LatencyRecorder[] recorders = new LatencyRecorder[names.size()];
+        Step[] stepsByIndex = new Step[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            recorders[i] = new LatencyRecorder(capacity);
+            stepsByIndex[i] = steps.get(names.get(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        long start = System.nanoTime();
+        try {
+            for (long sequence = 0; sequence < totalRequests; sequence++) {
+                long due = start + sequence * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int endpoint = schedule.get((int) (sequence % schedule.size()));
+                long requestSequence = sequence;
+                executor.execute(() -> {
+                    boolean success;
+                    try {
+                        success = stepsByIndex[endpoint].execute(requestSequence);
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    recorders[endpoint].record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due), success);
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        List<LoadReport> reports = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            reports.add(new LoadReport(names.get(i), recorders[i], elapsed));
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,69 @@
+package com.springboot.load;
+
+/**
+ * Outcome of one endpoint under load: request and error counts, achieved throughput
+ * and latency percentiles in microseconds.
+ */
+public class LoadReport {
+
+    private final String name;
+    private final int requests;
+    private final long errors;
+    private final double throughput;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+
+    LoadReport(String name, LatencyRecorder recorder, long elapsedNanos) {
+        long[] percentiles = recorder.percentiles(50, 99, 99.9, 100);
+        this.name = name;
+        this.requests = recorder.getCount();
+        this.errors = recorder.getErrorCount();
+        this.throughput = requests * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+        this.p50Micros = percentiles[0];
+        this.p99Micros = percentiles[1];
+        this.p999Micros = percentiles[2];
+        this.maxMicros = percentiles[3];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /** Completed requests per second. */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s requests=%d errors=%d throughput=%.1f/s p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                name, requests, errors, throughput, p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0,
+                maxMicros / 1000.0);
+    }
+}
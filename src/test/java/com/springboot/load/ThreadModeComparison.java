@@ -0,0 +1,193 @@
+package com.springboot.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.CartOfferApplication;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.OfferRequest;
+import com.springboot.stub.SegmentServiceStub;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform threads against virtual threads for apply_offer. Starts the
+ * {@link SegmentServiceStub} in this JVM and the application in a child JVM once per
+ * mode, so each mode's resident memory is measured on its own, then raises the
+ * offered rate step by step until the application stops keeping up. Every lookup goes
+ * to the stub, so request threads spend their time blocked on the segment service.
+ * Needs Java 21 or later for the virtual mode.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.springboot.load.ThreadModeComparison -Dstub.latencyMillis=50
+ * </pre>
+ *
+ * A step is sustained when at most 1% of requests fail, p99 stays within
+ * {@code load.sloMillis} and the achieved throughput is at least 95% of the offered
+ * rate. System properties: {@code load.startRps} (500), {@code load.rpsFactor} (1.5),
+ * {@code load.maxRps} (50000), {@code load.stepSeconds} (10), {@code load.sloMillis}
+ * (200), {@code load.workers} (2000), {@code load.users} (100000), {@code load.modes}
+ * (platform,virtual), {@code app.heap} (512m), {@code app.segmentConnections} (2000),
+ * {@code stub.latencyMillis} (50), {@code app.port} (9102). Tomcat's own defaults
+ * apply to the platform mode, e.g. pass {@code -Dapp.args=--server.tomcat.max-threads=400}.
+ */
+public class ThreadModeComparison {
+
+    private static final String OFFER_PATH = "/api/v1/offer";
+    private static final String APPLY_OFFER_PATH = "/api/v1/cart/apply_offer";
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+    private static final int RESTAURANTS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int startRps = Integer.getInteger("load.startRps", 500);
+        double rpsFactor = Double.parseDouble(System.getProperty("load.rpsFactor", "1.5"));
+        int maxRps = Integer.getInteger("load.maxRps", 50_000);
+        int stepSeconds = Integer.getInteger("load.stepSeconds", 10);
+        long sloMicros = TimeUnit.MILLISECONDS.toMicros(Long.getLong("load.sloMillis", 200));
+        int workers = Integer.getInteger("load.workers", 2000);
+        int users = Integer.getInteger("load.users", 100_000);
+        int port = Integer.getInteger("app.port", 9102);
+        String[] modes = System.getProperty("load.modes", "platform,virtual").split(",");
+
+        List<String> summary = new ArrayList<>();
+        try (SegmentServiceStub stub = SegmentServiceStub.start(0);
+             CloseableHttpClient httpClient = HttpClients.custom().setMaxConnTotal(workers).setMaxConnPerRoute(workers).build()) {
+            stub.setLatencyMillis(Long.getLong("stub.latencyMillis", 50));
+            ObjectMapper mapper = new ObjectMapper();
+            String baseUrl = "http://localhost:" + port;
+
+            for (String mode : modes) {
+                Process application = startApplication(mode.trim(), port, stub.getBaseUrl());
+                try {
+                    awaitStarted(httpClient, baseUrl, mapper);
+                    for (int restaurant = 0; restaurant < RESTAURANTS; restaurant++) {
+                        post(httpClient, baseUrl + OFFER_PATH, mapper.writeValueAsBytes(offer(restaurant)));
+                    }
+
+                    int sustainedRps = 0;
+                    long peakRssKb = 0;
+                    int peakThreads = 0;
+                    for (double rps = startRps; rps <= maxRps; rps *= rpsFactor) {
+                        int offered = (int) rps;
+                        LoadReport report = new LoadGenerator(offered, workers)
+                                .endpoint("apply_offer", 1, sequence -> post(httpClient, baseUrl + APPLY_OFFER_PATH,
+                                        mapper.writeValueAsBytes(cart(sequence, users))))
+                                .run(stepSeconds * 1000L).get(0);
+                        long rssKb = status(application, "VmRSS:");
+                        int threads = (int) status(application, "Threads:");
+                        peakRssKb = Math.max(peakRssKb, rssKb);
+                        peakThreads = Math.max(peakThreads, threads);
+                        boolean sustained = report.getErrors() * 100 <= report.getRequests()
+                                && report.getP99Micros() <= sloMicros && report.getThroughput() >= offered * 0.95;
+                        System.out.printf("%-8s offered=%d/s %s rss=%dMB threads=%d %s%n", mode, offered, report,
+                                rssKb / 1024, threads, sustained ? "sustained" : "NOT sustained");
+                        if (!sustained) {
+                            break;
+                        }
+                        sustainedRps = offered;
+                    }
+                    summary.add(String.format("%-8s max sustained=%d/s peak rss=%dMB peak threads=%d", mode, sustainedRps,
+                            peakRssKb / 1024, peakThreads));
+                } finally {
+                    application.destroy();
+                    application.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        }
+        System.out.println();
+        summary.forEach(System.out::println);
+    }
+
+    private static Process startApplication(String mode, int port, String segmentBaseUrl) throws IOException {
+        String segmentConnections = System.getProperty("app.segmentConnections", "2000");
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Xms" + System.getProperty("app.heap", "512m"));
+        command.add("-Xmx" + System.getProperty("app.heap", "512m"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CartOfferApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--virtual-threads.enabled=" + "virtual".equals(mode));
+        command.add("--segment.client.base-url=" + segmentBaseUrl);
+        command.add("--segment.client.max-connections=" + segmentConnections);
+        command.add("--segment.resilience.max-concurrent-calls=" + segmentConnections);
+        command.add("--segment.cache.ttl-millis=0");
+        command.add("--segment.cache.negative-ttl-millis=0");
+        command.add("--logging.level.com.springboot=WARN");
+        String extraArgs = System.getProperty("app.args");
+        if (extraArgs != null && !extraArgs.isEmpty()) {
+            Collections.addAll(command, extraArgs.split("\\s+"));
+        }
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void awaitStarted(CloseableHttpClient httpClient, String baseUrl, ObjectMapper mapper) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            try {
+                if (post(httpClient, baseUrl + OFFER_PATH, mapper.writeValueAsBytes(offer(0)))) {
+                    return;
+                }
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+            }
+            Thread.sleep(250);
+        }
+    }
+
+    /**
+     * A numeric field of the child's /proc status, e.g. VmRSS in kB; 0 where /proc or
+     * {@code Process.pid()} (Java 9) is not available.
+     */
+    private static long status(Process process, String field) {
+        try {
+            long pid = (Long) Process.class.getMethod("pid").invoke(process);
+            for (String line : Files.readAllLines(Paths.get("/proc", Long.toString(pid), "status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith(field)) {
+                    return Long.parseLong(line.substring(field.length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (ReflectiveOperationException | IOException | RuntimeException e) {
+            // not measurable on this platform
+        }
+        return 0;
+    }
+
+    private static boolean post(CloseableHttpClient httpClient, String url, byte[] body) throws IOException {
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() == 200;
+        }
+    }
+
+    private static OfferRequest offer(int restaurant) {
+        return new OfferRequest(restaurant + 1, "FLATX", 10, Collections.singletonList(SEGMENTS[restaurant % SEGMENTS.length]));
+    }
+
+    private static ApplyOfferRequest cart(long sequence, int users) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(200);
+        applyRequest.setRestaurant_id((int) (sequence * 31 % RESTAURANTS) + 1);
+        applyRequest.setUser_id((int) (sequence % users) + 1);
+        return applyRequest;
+    }
+}
@@ -6,9 +6,14 @@ import com.springboot.enums.BaseUrls;
 import com.springboot.controller.ApiResponse;
 import com.springboot.controller.ApplyOfferRequest;
 import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.controller.BulkOfferResponse;
 import com.springboot.controller.OfferRequest;
+import com.springboot.controller.SegmentPrefetchRequest;
 import io.restassured.response.Response;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class CartOfferApiService {
     
     public CartOfferApiService(BaseUrls baseUrl, int port) {
@@ -20,11 +25,47 @@ public class CartOfferApiService {
         return response.as(ApiResponse.class);
     }
 
+    public BulkOfferResponse createOffersBulk(String body, String contentType) {
+        Response response = RestClient.postRequest(ApiEndpoints.CREATE_OFFERS_BULK, body, contentType);
+        RestClient.validateStatusCode(response, 200);
+        return response.as(BulkOfferResponse.class);
+    }
+
     public ApplyOfferResponse applyOffer(ApplyOfferRequest applyOfferRequest) {
         Response response = RestClient.postRequest(ApiEndpoints.APPLY_OFFER, applyOfferRequest);
         return response.as(ApplyOfferResponse.class);
     }
 
+    public ApplyOfferResponse applyOfferAsync(ApplyOfferRequest applyOfferRequest) {
+        Response response = RestClient.postRequest(ApiEndpoints.APPLY_OFFER_ASYNC, applyOfferRequest);
+        RestClient.validateStatusCode(response, 200);
+        return response.as(ApplyOfferResponse.class);
+    }
+
+    public List<ApplyOfferResponse> applyOffers(List<ApplyOfferRequest> applyOfferRequests) {
+        Response response = RestClient.postRequest(ApiEndpoints.APPLY_OFFER_BATCH, applyOfferRequests);
+        RestClient.validateStatusCode(response, 200);
+        return Arrays.asList(response.as(ApplyOfferResponse[].class));
+    }
+
+    public ApiResponse prefetchSegments(List<Integer> userIds) {
+        Response response = RestClient.postRequest(ApiEndpoints.PREFETCH_SEGMENTS, new SegmentPrefetchRequest(userIds));
+        RestClient.validateStatusCode(response, 200);
+        return response.as(ApiResponse.class);
+    }
+
+    /** Status code of a prefetch request, for requests expected to be rejected. */
+    public int prefetchSegmentsStatusCode(List<Integer> userIds) {
+        return RestClient.postRequest(ApiEndpoints.PREFETCH_SEGMENTS, new SegmentPrefetchRequest(userIds)).getStatusCode();
+    }
+
+    /** Prometheus text exposition of the application's meters. */
+    public String getPrometheusMetrics() {
+        Response response = RestClient.getRequest(ApiEndpoints.PROMETHEUS);
+        RestClient.validateStatusCode(response, 200);
+        return response.getBody().asString();
+    }
+
     public ApiResponse createOfferWithValidation(OfferRequest offerRequest) {
         Response response = RestClient.postRequest(ApiEndpoints.CREATE_OFFER, offerRequest);
         
@@ -0,0 +1,204 @@
+package com.springboot.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-JVM stand-in for the Docker mockserver. Serves the user_segment expectations from
+ * mockserver/initializerJson.json and answers 404 for any other user, like mockserver.
+ * Latency and a random 500 error rate can be injected to mimic a degraded service.
+ * Also serves a bulk lookup at {@link #BULK_PATH}, answering {@code ?user_ids=1,2,3}
+ * with the segments of the known users among them.
+ */
+public class SegmentServiceStub implements AutoCloseable {
+
+    public static final String BULK_PATH = "/api/v1/user_segments";
+
+    private static final String EXPECTATIONS = "mockserver/initializerJson.json";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, StubResponse> responsesByUserId;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger bulkRequestCount = new AtomicInteger();
+    private final AtomicInteger injectedErrorCount = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+
+    private SegmentServiceStub(Map<String, StubResponse> responsesByUserId, int port) throws IOException {
+        this.responsesByUserId = responsesByUserId;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newCachedThreadPool();
+        server.createContext("/api/v1/user_segment", this::handle);
+        server.createContext(BULK_PATH, this::handleBulk);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /** Starts the stub on the given port; 0 picks a free port. */
+    public static SegmentServiceStub start(int port) throws IOException {
+        return new SegmentServiceStub(loadExpectations(), port);
+    }
+
+    private static Map<String, StubResponse> loadExpectations() throws IOException {
+        Map<String, StubResponse> responses = new ConcurrentHashMap<>();
+        for (JsonNode expectation : MAPPER.readTree(new File(EXPECTATIONS))) {
+            String userId = expectation.path("httpRequest").path("queryStringParameters").path("user_id").path(0).asText();
+            JsonNode httpResponse = expectation.path("httpResponse");
+            responses.put(userId, new StubResponse(httpResponse.path("statusCode").asInt(), httpResponse.path("body").asText()));
+        }
+        return responses;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try {
+            sleep(latencyMillis);
+            StubResponse response;
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrorCount.incrementAndGet();
+                response = StubResponse.INJECTED_ERROR;
+            } else {
+                response = responsesByUserId.getOrDefault(userId(exchange.getRequestURI().getRawQuery()), StubResponse.NOT_FOUND);
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.statusCode, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleBulk(HttpExchange exchange) throws IOException {
+        bulkRequestCount.incrementAndGet();
+        try {
+            sleep(latencyMillis);
+            byte[] body = new byte[0];
+            int statusCode = 500;
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrorCount.incrementAndGet();
+            } else {
+                Map<String, String> segments = new LinkedHashMap<>();
+                for (String userId : parameter(exchange.getRequestURI().getRawQuery(), "user_ids").split(",")) {
+                    StubResponse response = responsesByUserId.get(userId);
+                    if (response != null && response.statusCode == 200) {
+                        segments.put(userId, MAPPER.readTree(response.body).path("segment").asText());
+                    }
+                }
+                body = MAPPER.writeValueAsBytes(Collections.singletonMap("segments", segments));
+                statusCode = 200;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String userId(String query) {
+        return parameter(query, "user_id");
+    }
+
+    private static String parameter(String query, String name) {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(name + "=")) {
+                    return parameter.substring(name.length() + 1);
+                }
+            }
+        }
+        return "";
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** Fraction of requests, between 0 and 1, answered with a 500 instead of the expectation. */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** Requests to the bulk lookup; they are not counted by {@link #getRequestCount()}. */
+    public int getBulkRequestCount() {
+        return bulkRequestCount.get();
+    }
+
+    public int getInjectedErrorCount() {
+        return injectedErrorCount.get();
+    }
+
+    /** Number of distinct client-side ports seen, i.e. TCP connections opened against the stub. */
+    public int getConnectionCount() {
+        return clientPorts.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static final class StubResponse {
+
+        private static final StubResponse NOT_FOUND = new StubResponse(404, "");
+        private static final StubResponse INJECTED_ERROR = new StubResponse(500, "");
+
+        private final int statusCode;
+        private final String body;
+
+        private StubResponse(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+    }
+}
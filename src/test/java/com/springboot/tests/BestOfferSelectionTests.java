@@ -0,0 +1,88 @@
+package com.springboot.tests;
+
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.repository.OfferIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+public class BestOfferSelectionTests {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+
+    // ==================== BEST OFFER SELECTION TESTS ====================
+
+    @Test(priority = 1, groups = {"best-offer"}, description = "The indexed best offer equals a brute-force scan over every eligible offer")
+    public void testBestOffer_MatchesBruteForce() {
+        Random random = new Random(7);
+        InMemoryOfferRepository repository = new InMemoryOfferRepository();
+        List<OfferRequest> offers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            OfferRequest offer = new OfferRequest(1 + random.nextInt(20), random.nextBoolean() ? "FLATX" : "PERCENTAGE",
+                    random.nextInt(101), Collections.singletonList(SEGMENTS[random.nextInt(SEGMENTS.length)]));
+            offers.add(offer);
+            repository.save(CompiledOffer.compile(offer));
+        }
+
+        for (int restaurantId = 1; restaurantId <= 21; restaurantId++) {
+            for (String segment : SEGMENTS) {
+                for (int cartValue = 0; cartValue <= 2_000; cartValue += 7) {
+                    int expected = bruteForce(offers, restaurantId, segment, cartValue);
+                    Optional<CompiledOffer> best = repository.findBestOffer(restaurantId, segment, cartValue);
+                    int actual = best.isPresent() ? best.get().apply(cartValue) : cartValue;
+                    Assert.assertEquals(actual, expected,
+                            "restaurant " + restaurantId + " " + segment + " cart " + cartValue);
+                    OfferIndex restaurantOffers = repository.findByRestaurant(restaurantId);
+                    int segmentId = SegmentRegistry.idOf(segment);
+                    Assert.assertEquals(restaurantOffers.applyBestOffer(segmentId, cartValue), expected,
+                            "decision table, restaurant " + restaurantId + " " + segment + " cart " + cartValue);
+                    Assert.assertEquals(restaurantOffers.hasOffer(segmentId), best.isPresent());
+                }
+            }
+        }
+    }
+
+    @Test(priority = 1, groups = {"best-offer"}, description = "Unknown segments match no offer")
+    public void testBestOffer_UnknownSegment() {
+        InMemoryOfferRepository repository = new InMemoryOfferRepository();
+        repository.save(CompiledOffer.compile(new OfferRequest(1, "FLATX", 10, Collections.singletonList("p1"))));
+
+        Assert.assertFalse(repository.findBestOffer(1, "p4", 100).isPresent());
+        Assert.assertFalse(repository.findBestOffer(1, null, 100).isPresent());
+        Assert.assertFalse(repository.findBestOffer(1, "p2", 100).isPresent());
+        Assert.assertFalse(repository.findByRestaurant(1).hasOffer(-1));
+        Assert.assertEquals(repository.findByRestaurant(1).applyBestOffer(-1, 100), 100);
+        Assert.assertEquals(repository.findByRestaurant(2).applyBestOffer(SegmentRegistry.idOf("p1"), 100), 100);
+    }
+
+    @Test(priority = 1, groups = {"best-offer"}, description = "A zero-value offer is a match that leaves the cart unchanged")
+    public void testBestOffer_ZeroValueOffer() {
+        InMemoryOfferRepository repository = new InMemoryOfferRepository();
+        repository.save(CompiledOffer.compile(new OfferRequest(1, "PERCENTAGE", 0, Collections.singletonList("p1"))));
+
+        OfferIndex restaurantOffers = repository.findByRestaurant(1);
+        Assert.assertTrue(restaurantOffers.hasOffer(SegmentRegistry.idOf("p1")));
+        Assert.assertEquals(restaurantOffers.applyBestOffer(SegmentRegistry.idOf("p1"), 100), 100);
+        Assert.assertFalse(restaurantOffers.hasOffer(SegmentRegistry.idOf("p2")));
+    }
+
+    private int bruteForce(List<OfferRequest> offers, int restaurantId, String segment, int cartValue) {
+        int best = cartValue;
+        for (OfferRequest offer : offers) {
+            if (offer.getRestaurant_id() == restaurantId && offer.getCustomer_segment().contains(segment)) {
+                int discounted = offer.getOffer_type().equals("FLATX") ? cartValue - offer.getOffer_value()
+                        : (int) (cartValue - cartValue * offer.getOffer_value() * (0.01));
+                best = Math.min(best, discounted);
+            }
+        }
+        return best;
+    }
+}
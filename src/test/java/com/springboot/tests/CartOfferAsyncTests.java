@@ -0,0 +1,62 @@
+package com.springboot.tests;
+
+import com.springboot.enums.BaseUrls;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.OfferRequest;
+import com.springboot.service.CartOfferApiService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CartOfferAsyncTests {
+
+    private CartOfferApiService apiService;
+
+    @BeforeClass
+    public void setUp() {
+        apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, 9001);
+    }
+
+    // ==================== ASYNC APPLY OFFER TESTS ====================
+
+    @Test(priority = 1, groups = {"async", "smoke"}, description = "Async apply returns the same cart values as the blocking endpoint")
+    public void testApplyOfferAsync_MatchesBlockingEndpoint() {
+        apiService.createOfferWithValidation(new OfferRequest(8001, "FLATX", 10, Collections.singletonList("p1")));
+        apiService.createOfferWithValidation(new OfferRequest(8002, "PERCENTAGE", 10, Arrays.asList("p2", "p3")));
+
+        int[][] carts = {
+            {100, 8001, 1},
+            {100, 8001, 2},
+            {250, 8002, 2},
+            {250, 8002, 6},
+            {250, 8003, 1}
+        };
+        int[] expected = {90, 100, 225, 225, 250};
+
+        for (int i = 0; i < carts.length; i++) {
+            ApplyOfferRequest applyRequest = cart(carts[i][0], carts[i][1], carts[i][2]);
+            Assert.assertEquals(apiService.applyOfferAsync(applyRequest).getCart_value(), expected[i]);
+            Assert.assertEquals(apiService.applyOffer(applyRequest).getCart_value(), expected[i]);
+        }
+    }
+
+    @Test(priority = 2, groups = {"async", "error-handling"}, description = "Async apply leaves the cart unchanged when the segment service fails")
+    public void testApplyOfferAsync_SegmentServiceErrors() {
+        apiService.createOfferWithValidation(new OfferRequest(8004, "FLATX", 10, Arrays.asList("p1", "p2", "p3")));
+
+        Assert.assertEquals(apiService.applyOfferAsync(cart(100, 8004, 0)).getCart_value(), 100);
+        Assert.assertEquals(apiService.applyOfferAsync(cart(100, 8004, 999)).getCart_value(), 100);
+        Assert.assertEquals(apiService.applyOfferAsync(cart(100, 8004, 500)).getCart_value(), 100);
+    }
+
+    private ApplyOfferRequest cart(int cartValue, int restaurantId, int userId) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(cartValue);
+        applyRequest.setRestaurant_id(restaurantId);
+        applyRequest.setUser_id(userId);
+        return applyRequest;
+    }
+}
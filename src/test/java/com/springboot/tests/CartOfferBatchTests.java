@@ -0,0 +1,87 @@
+package com.springboot.tests;
+
+import com.springboot.enums.BaseUrls;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.controller.OfferRequest;
+import com.springboot.service.CartOfferApiService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CartOfferBatchTests {
+
+    private CartOfferApiService apiService;
+
+    @BeforeClass
+    public void setUp() {
+        apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, 9001);
+    }
+
+    // ==================== BATCH APPLY OFFER TESTS ====================
+
+    @Test(priority = 1, groups = {"batch", "smoke"}, description = "Batch apply prices each cart like the single-cart endpoint, in request order")
+    public void testApplyOffers_MixedCarts() {
+        Assert.assertEquals(apiService.createOfferWithValidation(
+                new OfferRequest(6001, "FLATX", 10, Collections.singletonList("p1"))).getResponse_msg(), "success");
+        Assert.assertEquals(apiService.createOfferWithValidation(
+                new OfferRequest(6002, "PERCENTAGE", 20, Arrays.asList("p2", "p3"))).getResponse_msg(), "success");
+
+        List<ApplyOfferRequest> carts = Arrays.asList(
+                cart(100, 6001, 1),
+                cart(100, 6001, 2),
+                cart(200, 6002, 2),
+                cart(200, 6002, 3),
+                cart(300, 6003, 1),
+                cart(150, 6001, 999));
+
+        List<ApplyOfferResponse> responses = apiService.applyOffers(carts);
+
+        Assert.assertEquals(responses.size(), carts.size());
+        Assert.assertEquals(responses.get(0).getCart_value(), 90);
+        Assert.assertEquals(responses.get(1).getCart_value(), 100);
+        Assert.assertEquals(responses.get(2).getCart_value(), 160);
+        Assert.assertEquals(responses.get(3).getCart_value(), 160);
+        Assert.assertEquals(responses.get(4).getCart_value(), 300);
+        Assert.assertEquals(responses.get(5).getCart_value(), 150);
+
+        for (int i = 0; i < carts.size(); i++) {
+            Assert.assertEquals(responses.get(i).getCart_value(), apiService.applyOffer(carts.get(i)).getCart_value());
+        }
+    }
+
+    @Test(priority = 2, groups = {"batch"}, description = "Batch apply with many carts of the same user and restaurant")
+    public void testApplyOffers_RepeatedUserAndRestaurant() {
+        apiService.createOfferWithValidation(new OfferRequest(6004, "FLATX", 5, Collections.singletonList("p1")));
+
+        List<ApplyOfferRequest> carts = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            carts.add(cart(i * 10, 6004, 1));
+        }
+
+        List<ApplyOfferResponse> responses = apiService.applyOffers(carts);
+
+        Assert.assertEquals(responses.size(), 50);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(responses.get(i).getCart_value(), (i + 1) * 10 - 5);
+        }
+    }
+
+    @Test(priority = 2, groups = {"batch"}, description = "Empty batch returns an empty list")
+    public void testApplyOffers_EmptyBatch() {
+        Assert.assertTrue(apiService.applyOffers(Collections.emptyList()).isEmpty());
+    }
+
+    private ApplyOfferRequest cart(int cartValue, int restaurantId, int userId) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(cartValue);
+        applyRequest.setRestaurant_id(restaurantId);
+        applyRequest.setUser_id(userId);
+        return applyRequest;
+    }
+}
@@ -0,0 +1,90 @@
+package com.springboot.tests;
+
+import com.springboot.enums.BaseUrls;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.BulkOfferResponse;
+import com.springboot.service.CartOfferApiService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class CartOfferBulkTests {
+
+    private CartOfferApiService apiService;
+
+    @BeforeClass
+    public void setUp() {
+        apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, 9001);
+    }
+
+    // ==================== BULK OFFER INGESTION TESTS ====================
+
+    @Test(priority = 1, groups = {"bulk", "smoke"}, description = "Bulk load a JSON array of valid offers")
+    public void testCreateOffersBulk_JsonArray() {
+        String body = "["
+                + "{\"restaurant_id\": 7001, \"offer_type\": \"FLATX\", \"offer_value\": 10, \"customer_segment\": [\"p1\"]},"
+                + "{\"restaurant_id\": 7002, \"offer_type\": \"PERCENTAGE\", \"offer_value\": 10, \"customer_segment\": [\"p2\"]}"
+                + "]";
+
+        BulkOfferResponse response = apiService.createOffersBulk(body, "application/json");
+
+        Assert.assertEquals(response.getResponse_msg(), "success");
+        Assert.assertEquals(response.getAccepted_count(), 2);
+        Assert.assertEquals(response.getRejected_count(), 0);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 7001, 1)).getCart_value(), 90);
+        Assert.assertEquals(apiService.applyOffer(cart(200, 7002, 2)).getCart_value(), 180);
+    }
+
+    @Test(priority = 1, groups = {"bulk"}, description = "Bulk load newline-delimited offers")
+    public void testCreateOffersBulk_Ndjson() {
+        String body = "{\"restaurant_id\": 7003, \"offer_type\": \"FLATX\", \"offer_value\": 25, \"customer_segment\": [\"p3\"]}\n"
+                + "{\"restaurant_id\": 7004, \"offer_type\": \"FLATX\", \"offer_value\": 5, \"customer_segment\": [\"p1\", \"p3\"]}\n";
+
+        BulkOfferResponse response = apiService.createOffersBulk(body, "application/x-ndjson");
+
+        Assert.assertEquals(response.getAccepted_count(), 2);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 7003, 3)).getCart_value(), 75);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 7004, 1)).getCart_value(), 95);
+    }
+
+    @Test(priority = 2, groups = {"bulk", "negative"}, description = "Invalid records are reported by index while valid ones are saved")
+    public void testCreateOffersBulk_PerRecordErrors() {
+        String body = "["
+                + "{\"restaurant_id\": 7005, \"offer_type\": \"FLATX\", \"offer_value\": 10, \"customer_segment\": [\"p1\"]},"
+                + "{\"restaurant_id\": 7006, \"offer_type\": \"BOGO\", \"offer_value\": 10, \"customer_segment\": [\"p1\"]},"
+                + "{\"restaurant_id\": 7007, \"offer_type\": \"FLATX\", \"offer_value\": \"ten\", \"customer_segment\": [\"p1\"]},"
+                + "{\"restaurant_id\": -1, \"offer_type\": \"FLATX\", \"offer_value\": 10, \"customer_segment\": [\"p1\"]}"
+                + "]";
+
+        BulkOfferResponse response = apiService.createOffersBulk(body, "application/json");
+
+        Assert.assertEquals(response.getAccepted_count(), 1);
+        Assert.assertEquals(response.getRejected_count(), 3);
+        Assert.assertEquals(response.getErrors().get(0).getIndex(), 1);
+        Assert.assertEquals(response.getErrors().get(0).getError(), "error: Offer type must be FLATX or PERCENTAGE");
+        Assert.assertEquals(response.getErrors().get(1).getIndex(), 2);
+        Assert.assertEquals(response.getErrors().get(2).getIndex(), 3);
+        Assert.assertEquals(response.getErrors().get(2).getError(), "error: Restaurant ID must be positive");
+        Assert.assertEquals(apiService.applyOffer(cart(100, 7005, 1)).getCart_value(), 90);
+    }
+
+    @Test(priority = 2, groups = {"bulk", "negative"}, description = "Malformed JSON saves nothing")
+    public void testCreateOffersBulk_MalformedJson() {
+        String body = "[{\"restaurant_id\": 7008, \"offer_type\": \"FLATX\", \"offer_value\": 10, \"customer_segment\": [\"p1\"]},"
+                + "{\"restaurant_id\": 7009, \"offer_type\": ";
+
+        BulkOfferResponse response = apiService.createOffersBulk(body, "application/json");
+
+        Assert.assertTrue(response.getResponse_msg().startsWith("error"));
+        Assert.assertEquals(response.getAccepted_count(), 0);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 7008, 1)).getCart_value(), 100);
+    }
+
+    private ApplyOfferRequest cart(int cartValue, int restaurantId, int userId) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(cartValue);
+        applyRequest.setRestaurant_id(restaurantId);
+        applyRequest.setUser_id(userId);
+        return applyRequest;
+    }
+}
@@ -0,0 +1,196 @@
+package com.springboot.tests;
+
+import com.springboot.enums.BaseUrls;
+import com.springboot.controller.ApiResponse;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.service.CartOfferApiService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CartOfferConcurrencyTests {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 8;
+    private static final int RESTAURANTS = 10;
+    private static final int FIRST_RESTAURANT_ID = 5001;
+
+    private CartOfferApiService apiService;
+
+    @BeforeClass
+    public void setUp() {
+        apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, 9001);
+    }
+
+    // ==================== CONCURRENT PUBLISH AND APPLY TESTS ====================
+
+    @Test(priority = 1, groups = {"concurrency"}, description = "Hammer offer creation and apply_offer at the same time")
+    public void testCreateAndApplyOffer_Concurrently() throws Exception {
+        int requestsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> readers = new ArrayList<>();
+        List<Future<List<String>>> writers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    List<String> messages = new ArrayList<>();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        OfferRequest offerRequest = new OfferRequest(FIRST_RESTAURANT_ID + i % RESTAURANTS, "FLATX", 10,
+                                Collections.singletonList("p1"));
+                        messages.add(apiService.createOfferWithValidation(offerRequest).getResponse_msg());
+                    }
+                    return messages;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> cartValues = new ArrayList<>();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        cartValues.add(apiService.applyOfferWithValidation(applyRequest(FIRST_RESTAURANT_ID + i % RESTAURANTS))
+                                .getCart_value());
+                    }
+                    return cartValues;
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<String>> writer : writers) {
+                for (String message : writer.get(2, TimeUnit.MINUTES)) {
+                    Assert.assertEquals(message, "success");
+                }
+            }
+            // every read sees the restaurant either before or after its first offer, never a broken index
+            for (Future<List<Integer>> reader : readers) {
+                for (Integer cartValue : reader.get(2, TimeUnit.MINUTES)) {
+                    Assert.assertTrue(cartValue == 90 || cartValue == 100, "Unexpected cart value: " + cartValue);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < RESTAURANTS; i++) {
+            ApplyOfferResponse response = apiService.applyOfferAndValidateCartValue(applyRequest(FIRST_RESTAURANT_ID + i), 90);
+            Assert.assertNotNull(response);
+        }
+    }
+
+    @Test(priority = 2, groups = {"concurrency"}, description = "Concurrent saves into the offer repository lose no writes")
+    public void testOfferRepository_ConcurrentSavesAndLookups() throws Exception {
+        InMemoryOfferRepository repository = new InMemoryOfferRepository();
+        int savesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                tasks.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int i = 0; i < savesPerThread; i++) {
+                        repository.save(CompiledOffer.compile(new OfferRequest(i % RESTAURANTS, "FLATX", writer,
+                                Collections.singletonList("p" + (i % 3 + 1)))));
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                tasks.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int i = 0; i < savesPerThread; i++) {
+                        repository.findBestOffer(i % RESTAURANTS, "p" + (i % 3 + 1), 100)
+                                .ifPresent(offer -> Assert.assertEquals(Long.bitCount(offer.getSegmentMask()), 1));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(repository.count(), WRITERS * savesPerThread);
+        for (int i = 0; i < RESTAURANTS; i++) {
+            Assert.assertTrue(repository.findBestOffer(i, "p" + (i % 3 + 1), 100).isPresent());
+        }
+    }
+
+    @Test(priority = 2, groups = {"concurrency"}, description = "A bulk save spanning restaurants becomes visible all at once")
+    public void testOfferRepository_SaveAllIsAtomicAcrossRestaurants() throws Exception {
+        InMemoryOfferRepository repository = new InMemoryOfferRepository();
+        int batches = 500;
+        int restaurantsPerBatch = 100;
+        AtomicInteger lastBatch = new AtomicInteger(-1);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        try {
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    int tornReads = 0;
+                    while (!done.get()) {
+                        int batch = lastBatch.get() + 1;
+                        int first = batch * restaurantsPerBatch;
+                        // the batch is written first to last: once its first restaurant is visible, the last must be too
+                        boolean firstVisible = repository.findBestOffer(first, "p1", 100).isPresent();
+                        boolean lastVisible = repository.findBestOffer(first + restaurantsPerBatch - 1, "p1", 100).isPresent();
+                        if (firstVisible && !lastVisible) {
+                            tornReads++;
+                        }
+                    }
+                    return tornReads;
+                }));
+            }
+            for (int batch = 0; batch < batches; batch++) {
+                List<CompiledOffer> offers = new ArrayList<>();
+                for (int i = 0; i < restaurantsPerBatch; i++) {
+                    offers.add(CompiledOffer.compile(new OfferRequest(batch * restaurantsPerBatch + i, "FLATX", 10,
+                            Collections.singletonList("p1"))));
+                }
+                repository.saveAll(offers);
+                lastBatch.set(batch);
+            }
+            done.set(true);
+            for (Future<Integer> reader : readers) {
+                Assert.assertEquals(reader.get(2, TimeUnit.MINUTES).intValue(), 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(repository.count(), batches * restaurantsPerBatch);
+    }
+
+    private ApplyOfferRequest applyRequest(int restaurantId) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(100);
+        applyRequest.setUser_id(1);
+        applyRequest.setRestaurant_id(restaurantId);
+        return applyRequest;
+    }
+}
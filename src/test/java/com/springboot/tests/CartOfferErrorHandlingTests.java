@@ -11,8 +11,10 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class CartOfferErrorHandlingTests {
     
@@ -193,7 +195,7 @@ public class CartOfferErrorHandlingTests {
         applyRequest.setRestaurant_id(restaurantId);
 
         ApplyOfferResponse applyResponse = apiService.applyOffer(applyRequest);
-        Assert.assertEquals(applyResponse.getCart_value(), 85);
+        Assert.assertEquals(applyResponse.getCart_value(), 75);
     }
 
     // ==================== DATA INTEGRITY TESTS ====================
@@ -245,4 +247,19 @@ public class CartOfferErrorHandlingTests {
         Assert.assertEquals(response.getCart_value(), 67);
     }
 
+    // ==================== PREFETCH VALIDATION TESTS ====================
+
+    @Test(priority = 6, groups = {"error-handling", "prefetch"}, description = "Prefetch rejects null and negative user ids and oversized lists with 400")
+    public void testPrefetchSegments_InvalidUserIds() {
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(Arrays.asList(1, null, 3)), 400);
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(Arrays.asList(1, -2)), 400);
+
+        List<Integer> tooMany = new ArrayList<>();
+        for (int userId = 1; userId <= 100_000; userId++) {
+            tooMany.add(userId);
+        }
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(tooMany), 400);
+
+        Assert.assertEquals(apiService.prefetchSegments(Arrays.asList(1, 2, 3)).getResponse_msg(), "accepted");
+    }
 }
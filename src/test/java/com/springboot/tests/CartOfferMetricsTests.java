@@ -0,0 +1,84 @@
+package com.springboot.tests;
+
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.OfferRequest;
+import com.springboot.enums.BaseUrls;
+import com.springboot.model.CompiledOffer;
+import com.springboot.property.SegmentCacheProperty;
+import com.springboot.property.SegmentResilienceProperty;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.service.CartOfferApiService;
+import com.springboot.service.CartOfferMetrics;
+import com.springboot.service.OfferValidationError;
+import com.springboot.service.SegmentBulkhead;
+import com.springboot.service.SegmentCache;
+import com.springboot.service.SegmentCircuitBreaker;
+import com.springboot.service.SegmentRequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class CartOfferMetricsTests {
+
+    // ==================== METER REGISTRATION TESTS ====================
+
+    @Test(priority = 1, groups = {"metrics"}, description = "Apply, segment and validation meters are recorded under their tags")
+    public void testMetrics_RecordedUnderTags() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryOfferRepository offerRepository = new InMemoryOfferRepository();
+        CartOfferMetrics metrics = new CartOfferMetrics(registry, offerRepository, new SegmentCache(new SegmentCacheProperty()),
+                new SegmentRequestCoalescer(), new SegmentCircuitBreaker(new SegmentResilienceProperty()),
+                new SegmentBulkhead(new SegmentResilienceProperty()));
+
+        long start = System.nanoTime();
+        metrics.recordApplyOffer(start);
+        metrics.recordApplyOffer(start);
+        metrics.recordApplyOfferBatch(start);
+        metrics.recordSegmentLookup(start, "p1", null);
+        metrics.recordSegmentLookup(start, null, null);
+        metrics.recordSegmentLookup(start, null, new IOException("timeout"));
+        metrics.recordMatch(true);
+        metrics.recordMatch(false);
+        metrics.recordMatch(false);
+        metrics.recordValidationFailure(OfferValidationError.INVALID_OFFER_TYPE);
+        offerRepository.save(CompiledOffer.compile(new OfferRequest(1, "FLATX", 10, Collections.singletonList("p1"))));
+
+        Assert.assertEquals(registry.get("cart.apply_offer").tag("endpoint", "blocking").timer().count(), 2);
+        Assert.assertEquals(registry.get("cart.apply_offer").tag("endpoint", "batch").timer().count(), 1);
+        Assert.assertEquals(registry.get("cart.apply_offer").tag("endpoint", "async").timer().count(), 0);
+        Assert.assertEquals(registry.get("segment.lookup").tag("outcome", "found").timer().count(), 1);
+        Assert.assertEquals(registry.get("segment.lookup").tag("outcome", "not_found").timer().count(), 1);
+        Assert.assertEquals(registry.get("segment.lookup").tag("outcome", "error").timer().count(), 1);
+        Assert.assertEquals(registry.get("cart.offer.match").tag("result", "hit").counter().count(), 1.0);
+        Assert.assertEquals(registry.get("cart.offer.match").tag("result", "miss").counter().count(), 2.0);
+        Assert.assertEquals(registry.get("offer.validation.failures").tag("reason", "invalid_offer_type").counter().count(), 1.0);
+        Assert.assertEquals(registry.get("offer.validation.failures").tag("reason", "negative_offer_value").counter().count(), 0.0);
+        Assert.assertEquals(registry.get("offer.store.size").gauge().value(), 1.0);
+        Assert.assertEquals(registry.get("segment.circuit.state").gauge().value(), 0.0);
+    }
+
+    // ==================== PROMETHEUS ENDPOINT TESTS ====================
+
+    @Test(priority = 2, groups = {"metrics", "smoke"}, description = "Apply latency histograms and validation failures are scraped from /actuator/prometheus")
+    public void testPrometheusEndpoint_ExposesApplyAndValidationMeters() {
+        CartOfferApiService apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, 9001);
+        apiService.createOfferWithValidation(new OfferRequest(9301, "FLATX", 10, Collections.singletonList("p1")));
+        apiService.createOfferWithValidation(new OfferRequest(9301, "BOGUS", 10, Collections.singletonList("p1")));
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(200);
+        applyRequest.setRestaurant_id(9301);
+        applyRequest.setUser_id(1);
+        apiService.applyOfferWithValidation(applyRequest);
+
+        String metrics = apiService.getPrometheusMetrics();
+        Assert.assertTrue(metrics.contains("cart_apply_offer_seconds_bucket{"), "apply_offer histogram missing");
+        Assert.assertTrue(metrics.contains("quantile=\"0.999\""), "apply_offer p999 missing");
+        Assert.assertTrue(metrics.contains("segment_lookup_seconds_count{"), "segment lookup timer missing");
+        Assert.assertTrue(metrics.contains("cart_offer_match_total{"), "match counter missing");
+        Assert.assertTrue(metrics.contains("offer_store_size{"), "offer store gauge missing");
+        Assert.assertTrue(metrics.contains("reason=\"invalid_offer_type\""), "validation failure reason missing");
+    }
+}
@@ -0,0 +1,188 @@
+package com.springboot.tests;
+
+import com.springboot.CartOfferApplication;
+import com.springboot.controller.ApplyOfferRequest;
+import com.springboot.controller.ApplyOfferResponse;
+import com.springboot.controller.OfferRequest;
+import com.springboot.enums.BaseUrls;
+import com.springboot.service.CartOfferApiService;
+import com.springboot.stub.SegmentServiceStub;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the application in-JVM as a WebFlux app on Reactor Netty against the segment
+ * service stub and checks it keeps the contracts of the servlet endpoints.
+ */
+public class CartOfferReactiveTests {
+
+    private static final int PORT = 9103;
+    private static final long SEGMENT_LATENCY_MILLIS = 100;
+
+    private SegmentServiceStub stub;
+    private ConfigurableApplicationContext application;
+    private CartOfferApiService apiService;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        stub = SegmentServiceStub.start(0);
+        application = SpringApplication.run(CartOfferApplication.class,
+                "--spring.main.web-application-type=reactive",
+                "--server.port=" + PORT,
+                "--segment.client.base-url=" + stub.getBaseUrl(),
+                "--segment.client.bulk-path=" + SegmentServiceStub.BULK_PATH,
+                "--segment.client.max-connections=1000",
+                "--segment.resilience.max-concurrent-calls=1000");
+        apiService = new CartOfferApiService(BaseUrls.LOCAL_HOST, PORT);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        if (application != null) {
+            application.close();
+        }
+        stub.close();
+    }
+
+    // ==================== REACTIVE API TESTS ====================
+
+    @Test(priority = 1, groups = {"reactive", "smoke"}, description = "The application serves from Reactor Netty")
+    public void testReactive_RunsOnNetty() {
+        Assert.assertTrue(application instanceof ReactiveWebServerApplicationContext, "Not a reactive application");
+        String server = ((ReactiveWebServerApplicationContext) application).getWebServer().getClass().getSimpleName();
+        Assert.assertTrue(server.contains("Netty"), "Unexpected web server " + server);
+    }
+
+    @Test(priority = 2, groups = {"reactive", "smoke"}, description = "Offers and carts are priced as on the servlet endpoints")
+    public void testReactive_ApplyOffer() {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9001, "FLATX", 10, Collections.singletonList("p1")), "success");
+        apiService.createOfferAndValidateMessage(new OfferRequest(9002, "PERCENTAGE", 10, Arrays.asList("p2", "p3")), "success");
+
+        Assert.assertEquals(apiService.applyOffer(cart(100, 9001, 1)).getCart_value(), 90);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 9001, 2)).getCart_value(), 100);
+        Assert.assertEquals(apiService.applyOffer(cart(250, 9002, 2)).getCart_value(), 225);
+        Assert.assertEquals(apiService.applyOffer(cart(250, 9003, 1)).getCart_value(), 250);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 9001, 500)).getCart_value(), 100);
+    }
+
+    @Test(priority = 2, groups = {"reactive", "validation"}, description = "Invalid offers are rejected with the servlet endpoint's message")
+    public void testReactive_InvalidOffer() {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9004, "BOGO", 10, Collections.singletonList("p1")),
+                "error: Offer type must be FLATX or PERCENTAGE");
+    }
+
+    @Test(priority = 3, groups = {"reactive", "batch"}, description = "Batch responses keep the order of the carts")
+    public void testReactive_BatchKeepsOrder() {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9005, "FLATX", 10, Arrays.asList("p1", "p2", "p3")), "success");
+
+        List<ApplyOfferRequest> carts = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            carts.add(cart(100 + i, 9005, i % 4));
+        }
+        List<ApplyOfferResponse> responses = apiService.applyOffers(carts);
+
+        Assert.assertEquals(responses.size(), carts.size());
+        for (int i = 0; i < carts.size(); i++) {
+            int expected = i % 4 == 0 ? 100 + i : 90 + i;
+            Assert.assertEquals(responses.get(i).getCart_value(), expected, "cart " + i);
+        }
+    }
+
+    @Test(priority = 3, groups = {"reactive", "prefetch"}, description = "Prefetched segments come from one bulk call and serve later carts from the cache")
+    public void testReactive_PrefetchSegments() throws InterruptedException {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9007, "FLATX", 10, Arrays.asList("p1", "p2", "p3")), "success");
+        int bulkRequests = stub.getBulkRequestCount();
+
+        apiService.prefetchSegments(Arrays.asList(1, 2, 3, 10_001, 10_002));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (stub.getBulkRequestCount() == bulkRequests && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(stub.getBulkRequestCount(), bulkRequests + 1);
+
+        int requests = stub.getRequestCount();
+        Assert.assertEquals(apiService.applyOffer(cart(100, 9007, 2)).getCart_value(), 90);
+        Assert.assertEquals(apiService.applyOffer(cart(100, 9007, 10_001)).getCart_value(), 100);
+        Assert.assertEquals(stub.getRequestCount(), requests, "Prefetched users went back to the segment service");
+    }
+
+    @Test(priority = 3, groups = {"reactive", "prefetch"}, description = "Prefetch rejects null and negative user ids and oversized lists with 400")
+    public void testReactive_PrefetchRejectsInvalidUserIds() {
+        int bulkRequests = stub.getBulkRequestCount();
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(Arrays.asList(20_001, null)), 400);
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(Arrays.asList(20_002, -1)), 400);
+
+        List<Integer> tooMany = new ArrayList<>();
+        for (int userId = 1; userId <= 100_000; userId++) {
+            tooMany.add(userId);
+        }
+        Assert.assertEquals(apiService.prefetchSegmentsStatusCode(tooMany), 400);
+        Assert.assertEquals(stub.getBulkRequestCount(), bulkRequests, "A rejected prefetch looked users up");
+    }
+
+    @Test(priority = 3, groups = {"reactive", "error-handling"}, description = "A user whose lookup answered 500 is not asked for again within the negative TTL")
+    public void testReactive_ServerErrorIsCached() {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9008, "FLATX", 10, Arrays.asList("p1", "p2", "p3")), "success");
+        stub.setErrorRate(1.0);
+        try {
+            int requests = stub.getRequestCount();
+            Assert.assertEquals(apiService.applyOffer(cart(100, 9008, 30_001)).getCart_value(), 100);
+            Assert.assertEquals(apiService.applyOffer(cart(100, 9008, 30_001)).getCart_value(), 100);
+            Assert.assertEquals(stub.getRequestCount(), requests + 1, "The failing user went back to the segment service");
+        } finally {
+            stub.setErrorRate(0);
+        }
+    }
+
+    @Test(priority = 4, groups = {"reactive", "concurrency"}, description = "Carts waiting on a slow segment service are all in flight at once")
+    public void testReactive_ConcurrentCartsOnSlowSegmentService() {
+        apiService.createOfferAndValidateMessage(new OfferRequest(9006, "FLATX", 10, Collections.singletonList("p1")), "success");
+        stub.setLatencyMillis(SEGMENT_LATENCY_MILLIS);
+        try {
+            WebClient webClient = WebClient.create(BaseUrls.LOCAL_HOST.getBaseUrlWithPort(PORT));
+            int carts = 500;
+            List<Mono<ApplyOfferResponse>> requests = new ArrayList<>(carts);
+            for (int i = 0; i < carts; i++) {
+                // distinct unknown users, so every cart waits on its own segment call
+                requests.add(webClient.post().uri("/api/v1/cart/apply_offer").syncBody(cart(100, 9006, 20_000 + i))
+                        .retrieve().bodyToMono(ApplyOfferResponse.class));
+            }
+
+            long start = System.nanoTime();
+            List<ApplyOfferResponse> responses = Flux.merge(requests).collectList().block(Duration.ofSeconds(30));
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            Assert.assertEquals(responses.stream().map(ApplyOfferResponse::getCart_value).collect(Collectors.toList()),
+                    Collections.nCopies(carts, 100));
+            Assert.assertTrue(elapsedMillis < 20 * SEGMENT_LATENCY_MILLIS,
+                    carts + " carts took " + elapsedMillis + " ms against a " + SEGMENT_LATENCY_MILLIS + " ms segment service");
+        } finally {
+            stub.setLatencyMillis(0);
+        }
+    }
+
+    private ApplyOfferRequest cart(int cartValue, int restaurantId, int userId) {
+        ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+        applyRequest.setCart_value(cartValue);
+        applyRequest.setRestaurant_id(restaurantId);
+        applyRequest.setUser_id(userId);
+        return applyRequest;
+    }
+}
@@ -206,8 +206,8 @@ public class CartOfferTests {
 
     // ==================== BUSINESS LOGIC TESTS ====================
 
-    @Test(priority = 4, groups = {"business-logic"}, description = "Test multiple offers - first match wins")
-    public void testMultipleOffersFirstMatchWins() {
+    @Test(priority = 4, groups = {"business-logic"}, description = "Test multiple offers - largest discount wins")
+    public void testMultipleOffersBestDiscountWins() {
         int restaurantId = 3011;
 
         OfferRequest firstOffer = new OfferRequest(
@@ -234,7 +234,26 @@ public class CartOfferTests {
         ApplyOfferResponse response = apiService.applyOffer(applyRequest);
 
         Assert.assertNotNull(response);
-        Assert.assertEquals(response.getCart_value(), 180);
+        Assert.assertEquals(response.getCart_value(), 170);
+    }
+
+    @Test(priority = 4, groups = {"business-logic"}, description = "Test flat and percentage offers - best depends on cart value")
+    public void testFlatVersusPercentageCrossover() {
+        int restaurantId = 3020;
+
+        apiService.createOfferWithValidation(new OfferRequest(restaurantId, "FLATX", 30, Arrays.asList("p1")));
+        apiService.createOfferWithValidation(new OfferRequest(restaurantId, "PERCENTAGE", 10, Arrays.asList("p1")));
+
+        // below a cart of 300 the flat 30 is the larger discount, above it the 10%
+        int[][] cartsAndExpected = {{200, 170}, {300, 270}, {500, 450}};
+        for (int[] cartAndExpected : cartsAndExpected) {
+            ApplyOfferRequest applyRequest = new ApplyOfferRequest();
+            applyRequest.setCart_value(cartAndExpected[0]);
+            applyRequest.setUser_id(1);
+            applyRequest.setRestaurant_id(restaurantId);
+
+            Assert.assertEquals(apiService.applyOffer(applyRequest).getCart_value(), cartAndExpected[1]);
+        }
     }
 
     @Test(priority = 4, groups = {"business-logic"}, description = "Test different restaurants same segment")
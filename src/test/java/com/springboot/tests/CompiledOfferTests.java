@@ -0,0 +1,64 @@
+package com.springboot.tests;
+
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CompiledOfferTests {
+
+    // ==================== COMPILATION TESTS ====================
+
+    @Test(priority = 1, groups = {"compiled-offer"}, description = "Offer type and segments compile to an enum and a bitmask")
+    public void testCompile_TypeAndSegmentMask() {
+        CompiledOffer offer = CompiledOffer.compile(new OfferRequest(7, "PERCENTAGE", 15, Arrays.asList("p1", "p3", "p3")));
+
+        Assert.assertEquals(offer.getRestaurantId(), 7);
+        Assert.assertEquals(offer.getType(), OfferType.PERCENTAGE);
+        Assert.assertEquals(offer.getOfferValue(), 15);
+        Assert.assertEquals(offer.getSegmentMask(), 0b101L);
+        Assert.assertTrue(offer.appliesTo(SegmentRegistry.idOf("p1")));
+        Assert.assertFalse(offer.appliesTo(SegmentRegistry.idOf("p2")));
+        Assert.assertTrue(offer.appliesTo(SegmentRegistry.idOf("p3")));
+    }
+
+    @Test(priority = 1, groups = {"compiled-offer"}, description = "Unknown offer types and segments are refused")
+    public void testCompile_UnknownTypeOrSegment() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> CompiledOffer.compile(new OfferRequest(1, "BOGO", 10, Collections.singletonList("p1"))));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> CompiledOffer.compile(new OfferRequest(1, "FLATX", 10, Collections.singletonList("p4"))));
+    }
+
+    @Test(priority = 1, groups = {"compiled-offer"}, description = "Segments intern to stable ids and canonical strings")
+    public void testSegmentRegistry_InternsSegments() {
+        Assert.assertEquals(SegmentRegistry.idOf("p1"), 0);
+        Assert.assertEquals(SegmentRegistry.idOf("p3"), 2);
+        Assert.assertEquals(SegmentRegistry.idOf("p4"), -1);
+        Assert.assertEquals(SegmentRegistry.idOf(null), -1);
+        Assert.assertSame(SegmentRegistry.intern(new String("p2")), SegmentRegistry.codeOf(1));
+        Assert.assertEquals(SegmentRegistry.intern("p4"), "p4");
+        Assert.assertNull(SegmentRegistry.intern(null));
+        Assert.assertEquals(SegmentRegistry.maskOf(Arrays.asList("p2", "p3")), 0b110L);
+    }
+
+    // ==================== DISCOUNT TESTS ====================
+
+    @Test(priority = 2, groups = {"compiled-offer"}, description = "Compiled discounts equal the string-dispatched formula")
+    public void testApply_MatchesStringDispatchedDiscount() {
+        for (String type : new String[] {"FLATX", "PERCENTAGE"}) {
+            for (int value = 0; value <= 100; value++) {
+                CompiledOffer offer = CompiledOffer.compile(new OfferRequest(1, type, value, Collections.singletonList("p1")));
+                for (int cartVal = 0; cartVal <= 1000; cartVal++) {
+                    int expected = type.equals("FLATX") ? cartVal - value : (int) (cartVal - cartVal * value * (0.01));
+                    Assert.assertEquals(offer.apply(cartVal), expected, type + " " + value + " on " + cartVal);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.springboot.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.load.LatencyRecorder;
+import com.springboot.load.LoadGenerator;
+import com.springboot.load.LoadReport;
+import com.springboot.property.SegmentClientProperty;
+import com.springboot.service.SegmentClient;
+import com.springboot.stub.SegmentServiceStub;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class LoadGeneratorTests {
+
+    private SegmentServiceStub stub;
+    private SegmentClient segmentClient;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        stub = SegmentServiceStub.start(0);
+        SegmentClientProperty property = new SegmentClientProperty();
+        property.setBaseUrl(stub.getBaseUrl());
+        segmentClient = new SegmentClient(property, new ObjectMapper());
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        segmentClient.close();
+        stub.close();
+    }
+
+    // ==================== LOAD GENERATION TESTS ====================
+
+    @Test(priority = 1, groups = {"load"}, description = "Percentiles are read from the recorded latencies")
+    public void testLatencyRecorder_Percentiles() {
+        LatencyRecorder recorder = new LatencyRecorder(1000);
+        for (int i = 1000; i >= 1; i--) {
+            recorder.record(i, i % 10 != 0);
+        }
+
+        Assert.assertEquals(recorder.getCount(), 1000);
+        Assert.assertEquals(recorder.getErrorCount(), 100);
+        long[] percentiles = recorder.percentiles(50, 99, 99.9, 100);
+        Assert.assertEquals(percentiles[0], 500);
+        Assert.assertEquals(percentiles[1], 990);
+        Assert.assertEquals(percentiles[2], 999);
+        Assert.assertEquals(percentiles[3], 1000);
+    }
+
+    /*
+     * Only what the schedule and the stub decide is checked here; achieved rate and
+     * latency depend on the machine and are left to the CartOfferLoadTest run mode.
+     */
+    @Test(priority = 2, groups = {"load"}, description = "The generator issues every scheduled request and reports the stub's injected errors")
+    public void testLoadGenerator_CountsRequestsAndInjectedErrors() throws InterruptedException {
+        int requestsBefore = stub.getRequestCount();
+        int errorsBefore = stub.getInjectedErrorCount();
+        stub.setErrorRate(0.2);
+        try {
+            List<LoadReport> reports = new LoadGenerator(200, 16)
+                    .endpoint("user_segment", 1, sequence -> segmentClient.getSegment((int) (sequence % 10) + 1) != null)
+                    .run(2000);
+
+            LoadReport report = reports.get(0);
+            int injectedErrors = stub.getInjectedErrorCount() - errorsBefore;
+            Assert.assertEquals(report.getRequests(), 400);
+            Assert.assertEquals(stub.getRequestCount() - requestsBefore, 400);
+            Assert.assertEquals(report.getErrors(), injectedErrors);
+            Assert.assertTrue(injectedErrors > 40 && injectedErrors < 120, "injected errors: " + injectedErrors);
+            Assert.assertTrue(report.getP50Micros() <= report.getP99Micros() && report.getP99Micros() <= report.getP999Micros());
+        } finally {
+            stub.setErrorRate(0);
+        }
+    }
+
+    @Test(priority = 3, groups = {"load"}, description = "Requests are spread over the endpoints in proportion to their weights")
+    public void testLoadGenerator_SplitsRequestsByWeight() throws InterruptedException {
+        List<LoadReport> reports = new LoadGenerator(1000, 4)
+                .endpoint("apply_offer", 3, sequence -> true)
+                .endpoint("create_offer", 1, sequence -> false)
+                .run(400);
+
+        Assert.assertEquals(reports.get(0).getName(), "apply_offer");
+        Assert.assertEquals(reports.get(0).getRequests(), 300);
+        Assert.assertEquals(reports.get(0).getErrors(), 0);
+        Assert.assertEquals(reports.get(1).getRequests(), 100);
+        Assert.assertEquals(reports.get(1).getErrors(), 100);
+    }
+}
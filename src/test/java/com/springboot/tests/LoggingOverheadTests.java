@@ -0,0 +1,75 @@
+package com.springboot.tests;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Checks the logging setup in logback-spring.xml: request threads only enqueue events
+ * and never wait for the console. The configuration is loaded into a context of its own,
+ * so the logging of other tests in the JVM is left alone. How the async appender compares
+ * with println and synchronous logging is measured by {@code RequestLoggingBenchmark} in
+ * the jmh profile.
+ */
+public class LoggingOverheadTests {
+
+    private LoggerContext context;
+    private Logger root;
+
+    @BeforeClass
+    public void setUp() throws JoranException {
+        URL configuration = getClass().getClassLoader().getResource("logback-spring.xml");
+        Assert.assertNotNull(configuration, "logback-spring.xml is not on the classpath");
+        context = new LoggerContext();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(configuration);
+        root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        if (context != null) {
+            context.stop();
+        }
+    }
+
+    // ==================== LOGGING CONFIGURATION TESTS ====================
+
+    @Test(priority = 1, groups = {"logging"}, description = "Root logs at INFO only through the async appender")
+    public void testRoot_LogsOnlyThroughAsyncAppender() {
+        Assert.assertEquals(root.getLevel(), Level.INFO);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+            appenders.add(it.next());
+        }
+        Assert.assertEquals(appenders.size(), 1, "Root has appenders besides the async one: " + appenders);
+        Assert.assertTrue(appenders.get(0) instanceof AsyncAppender, "Root appender is not async: " + appenders.get(0));
+        Assert.assertEquals(appenders.get(0).getName(), "ASYNC_CONSOLE");
+    }
+
+    @Test(priority = 1, groups = {"logging"}, description = "The async appender never blocks request threads and writes to the console")
+    public void testAsyncAppender_NeverBlocks() {
+        AsyncAppender async = (AsyncAppender) root.getAppender("ASYNC_CONSOLE");
+        Assert.assertNotNull(async, "ASYNC_CONSOLE is not attached to root");
+        Assert.assertTrue(async.isStarted());
+        Assert.assertTrue(async.isNeverBlock(), "neverBlock is not set");
+        Assert.assertEquals(async.getDiscardingThreshold(), 0, "INFO events would be discarded before the queue is full");
+        Assert.assertTrue(async.getAppender("CONSOLE") instanceof ConsoleAppender, "ASYNC_CONSOLE does not wrap the console appender");
+    }
+}
@@ -0,0 +1,153 @@
+package com.springboot.tests;
+
+import com.springboot.model.CompiledOffer;
+import com.springboot.model.OfferType;
+import com.springboot.model.SegmentRegistry;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.repository.OffHeapOfferRepository;
+import com.springboot.repository.OfferRepository;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OffHeapOfferRepositoryTests {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+
+    // ==================== OFF-HEAP OFFER STORE TESTS ====================
+
+    @Test(priority = 1, groups = {"off-heap"}, description = "The off-heap store picks the same offer as the heap store")
+    public void testOffHeap_MatchesHeapStore() {
+        Random random = new Random(19);
+        OffHeapOfferRepository offHeap = new OffHeapOfferRepository();
+        InMemoryOfferRepository heap = new InMemoryOfferRepository();
+        List<CompiledOffer> batch = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            CompiledOffer offer = randomOffer(random, 5_000);
+            if (i % 3 == 0) {
+                offHeap.save(offer);
+                heap.save(offer);
+            } else {
+                batch.add(offer);
+                if (batch.size() == 100) {
+                    offHeap.saveAll(batch);
+                    heap.saveAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        Assert.assertEquals(offHeap.count(), heap.count());
+        assertSameOffers(offHeap, heap, random, 5_001);
+    }
+
+    @Test(priority = 1, groups = {"off-heap"}, description = "Replaced blocks are compacted away without changing any lookup")
+    public void testOffHeap_CompactsReplacedBlocks() {
+        Random random = new Random(23);
+        OffHeapOfferRepository offHeap = new OffHeapOfferRepository();
+        InMemoryOfferRepository heap = new InMemoryOfferRepository();
+        for (int i = 0; i < 300_000; i++) {
+            CompiledOffer offer = randomOffer(random, 20);
+            offHeap.save(offer);
+            heap.save(offer);
+        }
+
+        // every save writes a new block; without compaction 300k blocks would take several chunks
+        Assert.assertTrue(offHeap.offHeapBytes() <= 2L * 65_536 * 88, "off-heap bytes " + offHeap.offHeapBytes());
+        assertSameOffers(offHeap, heap, random, 21);
+    }
+
+    @Test(priority = 1, groups = {"off-heap"}, description = "Unknown restaurants and segments match no offer")
+    public void testOffHeap_NoMatch() {
+        OffHeapOfferRepository offHeap = new OffHeapOfferRepository();
+        offHeap.save(new CompiledOffer(1, OfferType.FLATX, 10, SegmentRegistry.bitOf(SegmentRegistry.idOf("p1"))));
+
+        Assert.assertFalse(offHeap.findBestOffer(2, "p1", 100).isPresent());
+        Assert.assertFalse(offHeap.findBestOffer(1, "p2", 100).isPresent());
+        Assert.assertFalse(offHeap.findBestOffer(1, "p4", 100).isPresent());
+        Assert.assertNull(offHeap.findByRestaurant(1).bestOffer(-1, 100));
+        Assert.assertEquals(offHeap.findByRestaurant(1).bestOffer(SegmentRegistry.idOf("p1"), 100).apply(100), 90);
+        Assert.assertEquals(offHeap.findByRestaurant(1).applyBestOffer(SegmentRegistry.idOf("p1"), 100), 90);
+        Assert.assertEquals(offHeap.findByRestaurant(1).applyBestOffer(SegmentRegistry.idOf("p2"), 100), 100);
+        Assert.assertTrue(offHeap.findByRestaurant(1).hasOffer(SegmentRegistry.idOf("p1")));
+        Assert.assertFalse(offHeap.findByRestaurant(1).hasOffer(-1));
+    }
+
+    @Test(priority = 2, groups = {"off-heap"}, description = "Lookups never see part of a batch")
+    public void testOffHeap_BatchIsAllOrNothing() throws Exception {
+        OffHeapOfferRepository offHeap = new OffHeapOfferRepository();
+        long p1 = SegmentRegistry.bitOf(SegmentRegistry.idOf("p1"));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> reader = executor.submit(() -> {
+                int checks = 0;
+                while (writing.get()) {
+                    // restaurant 1 is read first, so restaurant 500 must be at least as far along
+                    int first = discount(offHeap, 1);
+                    int last = discount(offHeap, 500);
+                    Assert.assertTrue(last >= first, "restaurant 500 at batch " + last + " behind restaurant 1 at " + first);
+                    checks++;
+                }
+                return checks;
+            });
+            for (int value = 1; value <= 500; value++) {
+                List<CompiledOffer> batch = new ArrayList<>();
+                for (int restaurantId = 1; restaurantId <= 500; restaurantId++) {
+                    batch.add(new CompiledOffer(restaurantId, OfferType.FLATX, value, p1));
+                }
+                offHeap.saveAll(batch);
+            }
+            writing.set(false);
+            Assert.assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int discount(OfferRepository repository, int restaurantId) {
+        Optional<CompiledOffer> offer = repository.findBestOffer(restaurantId, "p1", 1_000);
+        return offer.isPresent() ? 1_000 - offer.get().apply(1_000) : 0;
+    }
+
+    private static CompiledOffer randomOffer(Random random, int restaurants) {
+        long mask = 0;
+        while (mask == 0) {
+            for (String segment : SEGMENTS) {
+                if (random.nextBoolean()) {
+                    mask |= SegmentRegistry.bitOf(SegmentRegistry.idOf(segment));
+                }
+            }
+        }
+        return new CompiledOffer(1 + random.nextInt(restaurants), random.nextBoolean() ? OfferType.FLATX : OfferType.PERCENTAGE,
+                random.nextInt(101), mask);
+    }
+
+    private static void assertSameOffers(OfferRepository offHeap, OfferRepository heap, Random random, int restaurants) {
+        for (int probe = 0; probe < 20_000; probe++) {
+            int restaurantId = 1 + random.nextInt(restaurants);
+            String segment = SEGMENTS[random.nextInt(SEGMENTS.length)];
+            int cartValue = random.nextInt(2_000);
+            Optional<CompiledOffer> expected = heap.findBestOffer(restaurantId, segment, cartValue);
+            Optional<CompiledOffer> actual = offHeap.findBestOffer(restaurantId, segment, cartValue);
+            Assert.assertEquals(actual.isPresent(), expected.isPresent(), "restaurant " + restaurantId + " " + segment);
+            if (expected.isPresent()) {
+                Assert.assertEquals(actual.get().toString(), expected.get().toString(),
+                        "restaurant " + restaurantId + " " + segment + " cart " + cartValue);
+            }
+            int segmentId = SegmentRegistry.idOf(segment);
+            Assert.assertEquals(offHeap.findByRestaurant(restaurantId).applyBestOffer(segmentId, cartValue),
+                    heap.findByRestaurant(restaurantId).applyBestOffer(segmentId, cartValue),
+                    "restaurant " + restaurantId + " " + segment + " cart " + cartValue);
+        }
+    }
+}
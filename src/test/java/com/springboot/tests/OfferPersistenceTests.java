@@ -0,0 +1,231 @@
+package com.springboot.tests;
+
+import com.springboot.controller.OfferRequest;
+import com.springboot.model.CompiledOffer;
+import com.springboot.property.OfferPersistenceProperty;
+import com.springboot.repository.InMemoryOfferRepository;
+import com.springboot.repository.OffHeapOfferRepository;
+import com.springboot.repository.OfferLog;
+import com.springboot.repository.OfferRepository;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class OfferPersistenceTests {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("offers");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // ==================== OFFER PERSISTENCE TESTS ====================
+
+    @Test(priority = 1, groups = {"persistence"}, description = "A restarted store answers every lookup like the one that saved the offers")
+    public void testRestore_FromLog() throws IOException {
+        List<CompiledOffer> offers = randomOffers(new Random(11), 3_000);
+        InMemoryOfferRepository expected = new InMemoryOfferRepository();
+        try (OfferLog offerLog = new OfferLog(property(Integer.MAX_VALUE))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            saveInBatches(offers, repository, expected);
+        }
+
+        assertSameLookups(restore(Integer.MAX_VALUE), expected);
+    }
+
+    @Test(priority = 1, groups = {"persistence"}, description = "Offers saved before and after a snapshot are all restored")
+    public void testRestore_FromSnapshotAndLog() throws IOException {
+        List<CompiledOffer> offers = randomOffers(new Random(13), 5_000);
+        InMemoryOfferRepository expected = new InMemoryOfferRepository();
+        try (OfferLog offerLog = new OfferLog(property(1_000))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            saveInBatches(offers, repository, expected);
+        }
+
+        Assert.assertTrue(count(directory, "snapshot-*.bin") >= 1, "a snapshot was written");
+        Assert.assertTrue(count(directory, "offers-*.log") < 5, "logs covered by the snapshot were deleted");
+        assertSameLookups(restore(1_000), expected);
+    }
+
+    @Test(priority = 1, groups = {"persistence"}, description = "The off-heap store restores from its snapshots and log too")
+    public void testRestore_OffHeapFromSnapshotAndLog() throws IOException {
+        List<CompiledOffer> offers = randomOffers(new Random(29), 5_000);
+        InMemoryOfferRepository expected = new InMemoryOfferRepository();
+        try (OfferLog offerLog = new OfferLog(property(1_000))) {
+            OffHeapOfferRepository repository = new OffHeapOfferRepository(offerLog);
+            repository.restore();
+            saveInBatches(offers, repository, expected);
+        }
+
+        Assert.assertTrue(count(directory, "snapshot-*.bin") >= 1, "a snapshot was written");
+        try (OfferLog offerLog = new OfferLog(property(1_000))) {
+            OffHeapOfferRepository restored = new OffHeapOfferRepository(offerLog);
+            restored.restore();
+            assertSameLookups(restored, expected);
+        }
+    }
+
+    @Test(priority = 1, groups = {"persistence"}, description = "A record torn by a crash mid-append is ignored on restore")
+    public void testRestore_IgnoresTornRecord() throws IOException {
+        InMemoryOfferRepository expected = new InMemoryOfferRepository();
+        try (OfferLog offerLog = new OfferLog(property(Integer.MAX_VALUE))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            CompiledOffer offer = CompiledOffer.compile(new OfferRequest(1, "FLATX", 10, Collections.singletonList("p1")));
+            repository.save(offer);
+            expected.save(offer);
+            repository.save(CompiledOffer.compile(new OfferRequest(1, "FLATX", 50, Collections.singletonList("p1"))));
+        }
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        InMemoryOfferRepository restored = restore(Integer.MAX_VALUE);
+        Assert.assertEquals(restored.count(), 1);
+        assertSameLookups(restored, expected);
+    }
+
+    @Test(priority = 2, groups = {"persistence"}, description = "A batch with a flipped byte fails its checksum and ends the replay")
+    public void testRestore_IgnoresCorruptBatch() throws IOException {
+        try (OfferLog offerLog = new OfferLog(property(Integer.MAX_VALUE))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            repository.saveAll(randomOffers(new Random(17), 3));
+            repository.saveAll(randomOffers(new Random(19), 7));
+        }
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // log header 8 bytes, batch header 12 and records 24: the value of the second batch's second record
+            long position = 8 + (12 + 3 * 24) + 12 + 24 + 8;
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.flip();
+            value.put(0, (byte) (value.get(0) ^ 0x40));
+            channel.write(value, position);
+        }
+
+        Assert.assertEquals(restore(Integer.MAX_VALUE).count(), 3);
+    }
+
+    @Test(priority = 2, groups = {"persistence"}, description = "A bulk upload cut short by a crash is not restored in part")
+    public void testRestore_IgnoresPartialBatch() throws IOException {
+        List<CompiledOffer> first = randomOffers(new Random(23), 5);
+        List<CompiledOffer> second = randomOffers(new Random(29), 10);
+        InMemoryOfferRepository expected = new InMemoryOfferRepository();
+        expected.saveAll(first);
+        try (OfferLog offerLog = new OfferLog(property(Integer.MAX_VALUE))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            repository.saveAll(first);
+            repository.saveAll(second);
+        }
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            // leave four whole records of the second batch, as if the crash came mid-write
+            channel.truncate(channel.size() - 6 * 24);
+        }
+
+        InMemoryOfferRepository restored = restore(Integer.MAX_VALUE);
+        Assert.assertEquals(restored.count(), first.size());
+        assertSameLookups(restored, expected);
+    }
+
+    private Path logFile() throws IOException {
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "offers-*.log")) {
+            return logs.iterator().next();
+        }
+    }
+
+    private InMemoryOfferRepository restore(int snapshotEveryOffers) throws IOException {
+        try (OfferLog offerLog = new OfferLog(property(snapshotEveryOffers))) {
+            InMemoryOfferRepository repository = new InMemoryOfferRepository(offerLog);
+            repository.restore();
+            return repository;
+        }
+    }
+
+    private OfferPersistenceProperty property(int snapshotEveryOffers) {
+        OfferPersistenceProperty property = new OfferPersistenceProperty();
+        property.setEnabled(true);
+        property.setDirectory(directory.toString());
+        property.setSnapshotEveryOffers(snapshotEveryOffers);
+        return property;
+    }
+
+    private static List<CompiledOffer> randomOffers(Random random, int size) {
+        List<CompiledOffer> offers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<String> segments = new ArrayList<>(Arrays.asList(SEGMENTS).subList(0, 1 + random.nextInt(SEGMENTS.length)));
+            Collections.shuffle(segments, random);
+            offers.add(CompiledOffer.compile(new OfferRequest(1 + random.nextInt(50),
+                    random.nextBoolean() ? "FLATX" : "PERCENTAGE", random.nextInt(101), segments.subList(0, 1 + random.nextInt(segments.size())))));
+        }
+        return offers;
+    }
+
+    private static void saveInBatches(List<CompiledOffer> offers, OfferRepository repository, InMemoryOfferRepository expected) {
+        for (int from = 0; from < offers.size(); from += 250) {
+            List<CompiledOffer> batch = offers.subList(from, Math.min(offers.size(), from + 250));
+            if (from % 500 == 0) {
+                repository.saveAll(batch);
+            } else {
+                batch.forEach(repository::save);
+            }
+            expected.saveAll(batch);
+        }
+    }
+
+    private static void assertSameLookups(OfferRepository restored, InMemoryOfferRepository expected) {
+        Assert.assertEquals(restored.count(), expected.count());
+        for (int restaurantId = 1; restaurantId <= 51; restaurantId++) {
+            for (String segment : SEGMENTS) {
+                for (int cartValue = 0; cartValue <= 1_000; cartValue += 13) {
+                    Optional<CompiledOffer> want = expected.findBestOffer(restaurantId, segment, cartValue);
+                    Optional<CompiledOffer> got = restored.findBestOffer(restaurantId, segment, cartValue);
+                    Assert.assertEquals(got.isPresent() ? got.get().apply(cartValue) : cartValue,
+                            want.isPresent() ? want.get().apply(cartValue) : cartValue,
+                            "restaurant " + restaurantId + " " + segment + " cart " + cartValue);
+                }
+            }
+        }
+    }
+
+    private static int count(Path directory, String glob) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,128 @@
+package com.springboot.tests;
+
+import com.springboot.util.IntLruMap;
+import com.springboot.util.IntObjectMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PrimitiveMapTests {
+
+    // ==================== INT OBJECT MAP TESTS ====================
+
+    @Test(priority = 1, groups = {"primitive-map"}, description = "IntObjectMap agrees with HashMap across growth, negative and colliding keys")
+    public void testIntObjectMap_MatchesHashMap() {
+        Random random = new Random(31);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // multiples of 1024 collide in the low bits without a good hash
+            int key = random.nextBoolean() ? random.nextInt() : random.nextInt(1_000) * 1_024;
+            String value = "v" + i;
+            map.put(key, value);
+            expected.put(key, value);
+        }
+
+        Assert.assertEquals(map.size(), expected.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Assert.assertEquals(map.get(entry.getKey()), entry.getValue());
+        }
+        Assert.assertNull(map.get(7));
+        Assert.assertEquals(map.getOrDefault(7, "none"), "none");
+        int[] visited = new int[1];
+        map.forEachValue(value -> visited[0]++);
+        Assert.assertEquals(visited[0], expected.size());
+    }
+
+    @Test(priority = 2, groups = {"primitive-map"}, description = "Readers without a lock see every completed put while the map grows")
+    public void testIntObjectMap_ConcurrentReaders() throws Exception {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        int[] written = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?>[] readers = new Future<?>[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = executor.submit(() -> {
+                    Random random = new Random();
+                    while (writing.get()) {
+                        int key = random.nextInt(200_000);
+                        Integer value = map.get(key);
+                        if (value != null) {
+                            Assert.assertEquals(value.intValue(), key * 3);
+                        }
+                    }
+                });
+            }
+            for (int key = 0; key < 200_000; key++) {
+                map.put(key, key * 3);
+                written[0]++;
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(map.size(), written[0]);
+    }
+
+    // ==================== INT LRU MAP TESTS ====================
+
+    @Test(priority = 1, groups = {"primitive-map"}, description = "IntLruMap evicts and removes exactly like an access-ordered LinkedHashMap")
+    public void testIntLruMap_MatchesLinkedHashMap() {
+        Random random = new Random(37);
+        int maxSize = 500;
+        IntLruMap<String> map = new IntLruMap<>(maxSize);
+        Map<Integer, String> expected = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) * (random.nextBoolean() ? 1 : -4_096);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                Assert.assertEquals(map.get(key), expected.get(key), "get " + key);
+            } else if (operation < 9) {
+                int sizeBefore = expected.size();
+                boolean present = expected.containsKey(key);
+                expected.put(key, "v" + i);
+                Assert.assertEquals(map.put(key, "v" + i), !present && sizeBefore == maxSize, "put " + key);
+            } else {
+                Assert.assertEquals(map.remove(key), expected.remove(key), "remove " + key);
+            }
+            Assert.assertEquals(map.size(), expected.size());
+        }
+        for (Map.Entry<Integer, String> entry : new HashMap<>(expected).entrySet()) {
+            Assert.assertEquals(map.get(entry.getKey()), entry.getValue());
+        }
+
+        map.clear();
+        Assert.assertEquals(map.size(), 0);
+        Assert.assertFalse(map.put(1, "again"));
+        Assert.assertEquals(map.get(1), "again");
+    }
+
+    @Test(priority = 1, groups = {"primitive-map"}, description = "An IntLruMap of size zero keeps nothing")
+    public void testIntLruMap_ZeroSize() {
+        IntLruMap<String> map = new IntLruMap<>(0);
+        Assert.assertFalse(map.put(1, "p1"));
+        Assert.assertNull(map.get(1));
+        Assert.assertEquals(map.size(), 0);
+    }
+}
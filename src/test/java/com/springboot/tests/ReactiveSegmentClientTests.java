@@ -0,0 +1,112 @@
+package com.springboot.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.property.SegmentClientProperty;
+import com.springboot.service.ReactiveSegmentClient;
+import com.springboot.stub.SegmentServiceStub;
+import org.apache.http.client.HttpResponseException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+public class ReactiveSegmentClientTests {
+
+    private SegmentServiceStub stub;
+    private ReactiveSegmentClient segmentClient;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        stub = SegmentServiceStub.start(0);
+        SegmentClientProperty property = new SegmentClientProperty();
+        property.setBaseUrl(stub.getBaseUrl());
+        property.setReadTimeoutMillis(500);
+        property.setBulkPath(SegmentServiceStub.BULK_PATH);
+        segmentClient = new ReactiveSegmentClient(property, WebClient.builder(), new ObjectMapper());
+    }
+
+    @AfterClass
+    public void tearDown() {
+        segmentClient.destroy();
+        stub.close();
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "Known users resolve to the segment from the mockserver expectations")
+    public void testGetSegment_KnownUsers() {
+        Assert.assertEquals(segmentClient.getSegment(1).block(), "p1");
+        Assert.assertEquals(segmentClient.getSegment(2).block(), "p2");
+        Assert.assertEquals(segmentClient.getSegment(3).block(), "p3");
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "400 and 404 answers complete empty")
+    public void testGetSegment_UnknownUsers() {
+        Assert.assertNull(segmentClient.getSegment(0).block());
+        Assert.assertNull(segmentClient.getSegment(999).block());
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "500 answers are reported as errors")
+    public void testGetSegment_ServerError() {
+        try {
+            segmentClient.getSegment(500).block();
+            Assert.fail("Expected HttpResponseException");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpResponseException, "Unexpected failure: " + e);
+        }
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "The bulk lookup resolves many users with one call")
+    public void testGetSegments_BulkLookup() {
+        int bulkRequests = stub.getBulkRequestCount();
+
+        Map<Integer, String> segments = segmentClient.getSegments(new int[]{1, 2, 3, 999}).block();
+
+        Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "p1");
+        expected.put(2, "p2");
+        expected.put(3, "p3");
+        Assert.assertEquals(segments, expected);
+        Assert.assertEquals(stub.getBulkRequestCount(), bulkRequests + 1);
+        Assert.assertTrue(segmentClient.hasBulkLookup());
+    }
+
+    @Test(priority = 2, groups = {"segment-client"}, description = "Many lookups are in flight at once without a thread per lookup")
+    public void testGetSegment_ConcurrentLookups() {
+        stub.setLatencyMillis(200);
+        try {
+            List<CompletableFuture<String>> lookups = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                lookups.add(segmentClient.getSegment(1 + i % 3).toFuture());
+            }
+            for (int i = 0; i < lookups.size(); i++) {
+                Assert.assertEquals(lookups.get(i).join(), "p" + (1 + i % 3));
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            Assert.assertTrue(elapsedMillis < 100 * 200 / 4, "Lookups did not overlap: " + elapsedMillis + "ms");
+        } finally {
+            stub.setLatencyMillis(0);
+        }
+    }
+
+    @Test(priority = 3, groups = {"segment-client"}, description = "A slow segment service is cut off by the read timeout")
+    public void testGetSegment_ReadTimeout() {
+        stub.setLatencyMillis(2_000);
+        try {
+            segmentClient.getSegment(1).block();
+            Assert.fail("Expected TimeoutException");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException, "Unexpected failure: " + e);
+        } finally {
+            stub.setLatencyMillis(0);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.springboot.tests;
+
+import com.springboot.service.SegmentBatcher;
+import com.springboot.service.SegmentUnavailableException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SegmentBatcherTests {
+
+    private static final String[] SEGMENTS = {"p1", "p2", "p3"};
+
+    // ==================== BATCHING TESTS ====================
+
+    @Test(priority = 1, groups = {"segment-batching"}, description = "A full batch is loaded at once, without waiting")
+    public void testSubmit_FullBatchLoadsImmediately() {
+        List<int[]> batches = new CopyOnWriteArrayList<>();
+        try (SegmentBatcher batcher = new SegmentBatcher(3, TimeUnit.HOURS.toMillis(1), resolving(batches))) {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int userId = 1; userId <= 6; userId++) {
+                results.add(batcher.submit(userId));
+            }
+
+            Assert.assertEquals(batches.size(), 2);
+            Assert.assertEquals(batches.get(0), new int[]{1, 2, 3});
+            Assert.assertEquals(batches.get(1), new int[]{4, 5, 6});
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(results.get(i).getNow(null), SEGMENTS[(i + 1) % SEGMENTS.length]);
+            }
+            Assert.assertEquals(batcher.getBatchCount(), 2);
+            Assert.assertEquals(batcher.getUserCount(), 6);
+        }
+    }
+
+    @Test(priority = 1, groups = {"segment-batching"}, description = "A partial batch is loaded once the max wait has passed")
+    public void testSubmit_PartialBatchLoadsAfterMaxWait() {
+        List<int[]> batches = new CopyOnWriteArrayList<>();
+        try (SegmentBatcher batcher = new SegmentBatcher(100, 20, resolving(batches))) {
+            long start = System.nanoTime();
+            CompletableFuture<String> first = batcher.submit(7);
+            CompletableFuture<String> second = batcher.submit(8);
+
+            Assert.assertEquals(first.join(), SEGMENTS[7 % SEGMENTS.length]);
+            Assert.assertEquals(second.join(), SEGMENTS[8 % SEGMENTS.length]);
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20), "Batch was sent before the max wait");
+            Assert.assertEquals(batches.size(), 1);
+            Assert.assertEquals(batches.get(0), new int[]{7, 8});
+        }
+    }
+
+    @Test(priority = 2, groups = {"segment-batching"}, description = "Concurrent submitters are batched and every one is resolved")
+    public void testSubmit_ConcurrentSubmitters() throws Exception {
+        List<int[]> batches = new CopyOnWriteArrayList<>();
+        int users = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (SegmentBatcher batcher = new SegmentBatcher(64, 2, resolving(batches))) {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            List<CompletableFuture<CompletableFuture<String>>> submissions = new ArrayList<>();
+            for (int userId = 0; userId < users; userId++) {
+                int id = userId;
+                submissions.add(CompletableFuture.supplyAsync(() -> batcher.submit(id), executor));
+            }
+            for (CompletableFuture<CompletableFuture<String>> submission : submissions) {
+                results.add(submission.join());
+            }
+
+            for (int userId = 0; userId < users; userId++) {
+                Assert.assertEquals(results.get(userId).get(5, TimeUnit.SECONDS), SEGMENTS[userId % SEGMENTS.length]);
+            }
+            Assert.assertEquals(batches.stream().mapToInt(batch -> batch.length).sum(), users);
+            Assert.assertTrue(batches.stream().allMatch(batch -> batch.length <= 64), "A batch exceeded the max size");
+            Assert.assertTrue(batches.size() < users / 10, "Expected users to share batches, got " + batches.size() + " batches");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ==================== FAILURE TESTS ====================
+
+    @Test(priority = 3, groups = {"segment-batching", "error-handling"}, description = "A loader that throws fails every user of its batch")
+    public void testSubmit_LoaderThrows() {
+        try (SegmentBatcher batcher = new SegmentBatcher(2, TimeUnit.HOURS.toMillis(1), (userIds, results) -> {
+            throw new SegmentUnavailableException("user_segment circuit is open");
+        })) {
+            CompletableFuture<String> first = batcher.submit(1);
+            CompletableFuture<String> second = batcher.submit(2);
+
+            for (CompletableFuture<String> result : Arrays.asList(first, second)) {
+                try {
+                    result.join();
+                    Assert.fail("Expected the batch to fail");
+                } catch (CompletionException e) {
+                    Assert.assertTrue(e.getCause() instanceof SegmentUnavailableException, "Unexpected failure: " + e);
+                }
+            }
+        }
+    }
+
+    @Test(priority = 3, groups = {"segment-batching", "error-handling"}, description = "Closing fails the users still waiting for a batch")
+    public void testClose_FailsPendingUsers() {
+        List<int[]> batches = new CopyOnWriteArrayList<>();
+        SegmentBatcher batcher = new SegmentBatcher(100, TimeUnit.HOURS.toMillis(1), resolving(batches));
+        CompletableFuture<String> pending = batcher.submit(1);
+        batcher.close();
+
+        Assert.assertTrue(pending.isCompletedExceptionally());
+        Assert.assertTrue(batcher.submit(2).isCompletedExceptionally());
+        Assert.assertTrue(batches.isEmpty());
+    }
+
+    /** Records each batch and resolves user N to segment N mod 3 on the calling thread. */
+    private static SegmentBatcher.BatchLoader resolving(List<int[]> batches) {
+        return (userIds, results) -> {
+            batches.add(userIds.clone());
+            for (int i = 0; i < userIds.length; i++) {
+                results.get(i).complete(SEGMENTS[userIds[i] % SEGMENTS.length]);
+            }
+        };
+    }
+}
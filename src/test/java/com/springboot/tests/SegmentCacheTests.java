@@ -0,0 +1,113 @@
+package com.springboot.tests;
+
+import com.springboot.property.SegmentCacheProperty;
+import com.springboot.service.SegmentCache;
+import com.springboot.service.SegmentUnavailableException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SegmentCacheTests {
+
+    private SegmentCache newCache(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        SegmentCacheProperty property = new SegmentCacheProperty();
+        property.setMaxSize(maxSize);
+        property.setTtlMillis(ttlMillis);
+        property.setNegativeTtlMillis(negativeTtlMillis);
+        return new SegmentCache(property);
+    }
+
+    @Test(groups = {"segment-cache"}, description = "Second lookup of a user is served from the cache")
+    public void testGet_HitAfterMiss() {
+        SegmentCache cache = newCache(10, 60_000, 1_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        Assert.assertEquals(cache.get(1, userId -> { loads.incrementAndGet(); return "p1"; }), "p1");
+        Assert.assertEquals(cache.get(1, userId -> { loads.incrementAndGet(); return "p2"; }), "p1");
+
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertEquals(cache.getMissCount(), 1);
+        Assert.assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test(groups = {"segment-cache"}, description = "Entries are reloaded once their TTL has passed")
+    public void testGet_ExpiredEntryIsReloaded() throws InterruptedException {
+        SegmentCache cache = newCache(10, 20, 20);
+
+        cache.get(1, userId -> "p1");
+        Thread.sleep(50);
+
+        Assert.assertEquals(cache.get(1, userId -> "p3"), "p3");
+        Assert.assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test(groups = {"segment-cache"}, description = "Failed lookups are cached as negative entries with their own TTL")
+    public void testGet_NegativeEntry() throws InterruptedException {
+        SegmentCache cache = newCache(10, 60_000, 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        Assert.assertNull(cache.get(500, userId -> { loads.incrementAndGet(); return null; }));
+        Assert.assertNull(cache.get(500, userId -> { loads.incrementAndGet(); return null; }));
+        Assert.assertEquals(loads.get(), 1);
+
+        Thread.sleep(50);
+        Assert.assertEquals(cache.get(500, userId -> "p2"), "p2");
+    }
+
+    @Test(groups = {"segment-cache"}, description = "Least recently used entry is evicted when the cache is full")
+    public void testGet_EvictsLeastRecentlyUsed() {
+        SegmentCache cache = newCache(2, 60_000, 1_000);
+
+        cache.get(1, userId -> "p1");
+        cache.get(2, userId -> "p2");
+        cache.get(1, userId -> "unused");
+        cache.get(3, userId -> "p3");
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+        Assert.assertEquals(cache.get(1, userId -> "reloaded"), "p1");
+        Assert.assertEquals(cache.get(2, userId -> "reloaded"), "reloaded");
+    }
+
+    @Test(groups = {"segment-cache"}, description = "A 5xx answer fails lookups of the user fast until the negative TTL passes")
+    public void testPutFailure_FailsFastUntilNegativeTtl() throws InterruptedException {
+        SegmentCache cache = newCache(10, 60_000, 20);
+        AtomicInteger loads = new AtomicInteger();
+        cache.putFailure(7);
+
+        try {
+            cache.get(7, userId -> { loads.incrementAndGet(); return "p1"; });
+            Assert.fail("Expected SegmentUnavailableException");
+        } catch (SegmentUnavailableException expected) {
+            // the cached failure, without calling the loader
+        }
+        Assert.assertTrue(cache.getAsync(7, userId -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("p1");
+        }).isCompletedExceptionally());
+        Assert.assertEquals(loads.get(), 0);
+
+        Thread.sleep(50);
+        Assert.assertEquals(cache.get(7, userId -> "p2"), "p2");
+    }
+
+    @Test(groups = {"segment-cache"}, description = "A striped cache never holds more than its maximum size and fills up to it")
+    public void testGet_StripedCacheIsBounded() {
+        int maxSize = 10_000;
+        SegmentCache cache = newCache(maxSize, 60_000, 1_000);
+
+        for (int userId = 0; userId < maxSize; userId++) {
+            cache.get(userId, id -> "p1");
+        }
+        Assert.assertEquals(cache.size() + cache.getEvictionCount(), maxSize);
+        Assert.assertTrue(cache.getEvictionCount() < maxSize / 10, "Uneven stripes evicted " + cache.getEvictionCount());
+
+        for (int userId = maxSize; userId < 4 * maxSize; userId++) {
+            cache.get(userId, id -> "p1");
+        }
+        Assert.assertEquals(cache.size(), maxSize);
+        Assert.assertEquals(cache.get(4 * maxSize - 1, id -> "reloaded"), "p1", "Most recent user was evicted");
+    }
+}
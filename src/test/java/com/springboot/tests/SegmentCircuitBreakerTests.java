@@ -0,0 +1,138 @@
+package com.springboot.tests;
+
+import com.springboot.property.SegmentResilienceProperty;
+import com.springboot.service.SegmentBulkhead;
+import com.springboot.service.SegmentCircuitBreaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SegmentCircuitBreakerTests {
+
+    private SegmentCircuitBreaker newBreaker(int failureRateThreshold, int windowSize, int minimumCalls, long openMillis) {
+        SegmentResilienceProperty property = new SegmentResilienceProperty();
+        property.setFailureRateThreshold(failureRateThreshold);
+        property.setSlidingWindowSize(windowSize);
+        property.setMinimumCalls(minimumCalls);
+        property.setOpenMillis(openMillis);
+        return new SegmentCircuitBreaker(property);
+    }
+
+    private void call(SegmentCircuitBreaker breaker, boolean fails) {
+        long permit = breaker.tryAcquire();
+        Assert.assertNotEquals(permit, SegmentCircuitBreaker.REJECTED);
+        if (fails) {
+            breaker.onFailure(permit);
+        } else {
+            breaker.onSuccess(permit);
+        }
+    }
+
+    // ==================== CIRCUIT BREAKER TESTS ====================
+
+    @Test(groups = {"resilience"}, description = "The circuit opens once the failure rate reaches the threshold and then refuses calls")
+    public void testCircuit_OpensOnFailureRate() {
+        SegmentCircuitBreaker breaker = newBreaker(50, 10, 4, 60_000);
+        call(breaker, false);
+        call(breaker, true);
+        call(breaker, false);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.CLOSED);
+        call(breaker, true);
+
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+        Assert.assertEquals(breaker.tryAcquire(), SegmentCircuitBreaker.REJECTED);
+        Assert.assertEquals(breaker.tryAcquire(), SegmentCircuitBreaker.REJECTED);
+        Assert.assertEquals(breaker.getRejectedCount(), 2);
+    }
+
+    @Test(groups = {"resilience"}, description = "Too few calls never open the circuit, however many of them failed")
+    public void testCircuit_MinimumCalls() {
+        SegmentCircuitBreaker breaker = newBreaker(50, 10, 5, 60_000);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.CLOSED);
+    }
+
+    @Test(groups = {"resilience"}, description = "Only the calls in the sliding window count toward the failure rate")
+    public void testCircuit_SlidingWindow() {
+        SegmentCircuitBreaker breaker = newBreaker(50, 4, 4, 60_000);
+        for (int i = 0; i < 8; i++) {
+            call(breaker, false);
+        }
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.CLOSED);
+        // 2 failures in 10 calls overall, but 2 in the 4 the window holds
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+    }
+
+    @Test(groups = {"resilience"}, description = "After the open period one probe is let through; its success closes the circuit")
+    public void testCircuit_HalfOpenProbeCloses() throws InterruptedException {
+        SegmentCircuitBreaker breaker = newBreaker(50, 2, 2, 50);
+        call(breaker, true);
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+
+        Thread.sleep(80);
+        long probe = breaker.tryAcquire();
+        Assert.assertNotEquals(probe, SegmentCircuitBreaker.REJECTED);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.HALF_OPEN);
+        Assert.assertEquals(breaker.tryAcquire(), SegmentCircuitBreaker.REJECTED, "only one probe at a time");
+        breaker.onSuccess(probe);
+
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.CLOSED);
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.CLOSED, "the window starts afresh");
+    }
+
+    @Test(groups = {"resilience"}, description = "A failed probe opens the circuit for another open period")
+    public void testCircuit_HalfOpenProbeReopens() throws InterruptedException {
+        SegmentCircuitBreaker breaker = newBreaker(50, 2, 2, 50);
+        call(breaker, true);
+        call(breaker, true);
+
+        Thread.sleep(80);
+        long probe = breaker.tryAcquire();
+        Assert.assertNotEquals(probe, SegmentCircuitBreaker.REJECTED);
+        breaker.onFailure(probe);
+
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+        Assert.assertEquals(breaker.tryAcquire(), SegmentCircuitBreaker.REJECTED);
+    }
+
+    @Test(groups = {"resilience"}, description = "A call started before the circuit opened cannot close it by succeeding late")
+    public void testCircuit_StaleSuccessDoesNotCloseHalfOpen() throws InterruptedException {
+        SegmentCircuitBreaker breaker = newBreaker(50, 2, 2, 50);
+        long slowCall = breaker.tryAcquire();
+        call(breaker, true);
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+
+        Thread.sleep(80);
+        long probe = breaker.tryAcquire();
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess(slowCall);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.HALF_OPEN, "a stale success closed the circuit");
+        Assert.assertEquals(breaker.tryAcquire(), SegmentCircuitBreaker.REJECTED, "the probe is still in flight");
+
+        breaker.onFailure(probe);
+        Assert.assertEquals(breaker.getState(), SegmentCircuitBreaker.State.OPEN);
+    }
+
+    // ==================== BULKHEAD TESTS ====================
+
+    @Test(groups = {"resilience"}, description = "The bulkhead refuses calls over its cap until a permit is released")
+    public void testBulkhead_CapsConcurrentCalls() {
+        SegmentResilienceProperty property = new SegmentResilienceProperty();
+        property.setMaxConcurrentCalls(2);
+        SegmentBulkhead bulkhead = new SegmentBulkhead(property);
+
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertFalse(bulkhead.tryAcquire());
+        bulkhead.release();
+        Assert.assertTrue(bulkhead.tryAcquire());
+        Assert.assertEquals(bulkhead.getRejectedCount(), 1);
+        Assert.assertEquals(bulkhead.getAvailablePermits(), 0);
+    }
+}
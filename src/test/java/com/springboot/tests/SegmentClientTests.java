@@ -0,0 +1,82 @@
+package com.springboot.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.property.SegmentClientProperty;
+import com.springboot.service.SegmentClient;
+import com.springboot.stub.SegmentServiceStub;
+import org.apache.http.client.HttpResponseException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+public class SegmentClientTests {
+
+    private SegmentServiceStub stub;
+    private SegmentClient segmentClient;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        stub = SegmentServiceStub.start(0);
+        SegmentClientProperty property = new SegmentClientProperty();
+        property.setBaseUrl(stub.getBaseUrl());
+        property.setReadTimeoutMillis(200);
+        segmentClient = new SegmentClient(property, new ObjectMapper());
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        segmentClient.close();
+        stub.close();
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "Known users resolve to the segment from the mockserver expectations")
+    public void testGetSegment_KnownUsers() throws IOException {
+        Assert.assertEquals(segmentClient.getSegment(1), "p1");
+        Assert.assertEquals(segmentClient.getSegment(2), "p2");
+        Assert.assertEquals(segmentClient.getSegment(3), "p3");
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "400 and 404 answers yield no segment")
+    public void testGetSegment_UnknownUsers() throws IOException {
+        Assert.assertNull(segmentClient.getSegment(0));
+        Assert.assertNull(segmentClient.getSegment(999));
+        Assert.assertNull(segmentClient.getSegment(424242));
+    }
+
+    @Test(priority = 1, groups = {"segment-client"}, description = "500 answers are reported as failures")
+    public void testGetSegment_ServerError() throws IOException {
+        try {
+            segmentClient.getSegment(500);
+            Assert.fail("Expected HttpResponseException");
+        } catch (HttpResponseException e) {
+            Assert.assertEquals(e.getStatusCode(), 500);
+        }
+    }
+
+    @Test(priority = 2, groups = {"segment-client"}, description = "Sequential calls reuse one kept-alive connection")
+    public void testGetSegment_ReusesConnection() throws IOException {
+        int connectionsBefore = stub.getConnectionCount();
+        for (int i = 0; i < 20; i++) {
+            segmentClient.getSegment(1 + i % 10);
+        }
+        Assert.assertTrue(stub.getConnectionCount() - connectionsBefore <= 1,
+                "Opened " + (stub.getConnectionCount() - connectionsBefore) + " connections for 20 sequential calls");
+    }
+
+    @Test(priority = 3, groups = {"segment-client"}, description = "A slow segment service is cut off by the read timeout")
+    public void testGetSegment_ReadTimeout() throws IOException {
+        stub.setLatencyMillis(1_000);
+        try {
+            segmentClient.getSegment(1);
+            Assert.fail("Expected SocketTimeoutException");
+        } catch (SocketTimeoutException expected) {
+            // the configured 200ms read timeout fired
+        } finally {
+            stub.setLatencyMillis(0);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.springboot.tests;
+
+import com.springboot.service.SegmentRequestCoalescer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SegmentRequestCoalescerTests {
+
+    @Test(groups = {"segment-coalescing"}, description = "Concurrent blocking lookups of one user share a single load")
+    public void testGet_ConcurrentCallersShareOneLoad() throws Exception {
+        SegmentRequestCoalescer coalescer = new SegmentRequestCoalescer();
+        int callers = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.get(1, userId -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "p1";
+                })));
+            }
+            // let every caller reach the coalescer before the single load finishes
+            while (coalescer.getLoadCount() + coalescer.getCoalescedCount() < callers) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Assert.assertEquals(result.get(1, TimeUnit.MINUTES), "p1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertEquals(coalescer.getLoadCount(), 1);
+        Assert.assertEquals(coalescer.getCoalescedCount(), callers - 1);
+        Assert.assertEquals(coalescer.getInFlightCount(), 0);
+    }
+
+    @Test(groups = {"segment-coalescing"}, description = "Async lookups join an in-flight lookup and a later lookup loads again")
+    public void testGetAsync_JoinsInFlightLookup() {
+        SegmentRequestCoalescer coalescer = new SegmentRequestCoalescer();
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.getAsync(2, userId -> response);
+        CompletableFuture<String> second = coalescer.getAsync(2, userId -> CompletableFuture.completedFuture("unused"));
+        String blocking = coalescer.get(3, userId -> "p3");
+        Assert.assertFalse(first.isDone());
+        Assert.assertFalse(second.isDone());
+
+        response.complete("p2");
+
+        Assert.assertEquals(first.join(), "p2");
+        Assert.assertEquals(second.join(), "p2");
+        Assert.assertEquals(blocking, "p3");
+        Assert.assertEquals(coalescer.getCoalescedCount(), 1);
+        Assert.assertEquals(coalescer.getInFlightCount(), 0);
+        Assert.assertEquals(coalescer.getAsync(2, userId -> CompletableFuture.completedFuture("p1")).join(), "p1");
+        Assert.assertEquals(coalescer.getLoadCount(), 3);
+    }
+
+    @Test(groups = {"segment-coalescing"}, description = "A failed load is shared with its waiters and not remembered")
+    public void testGet_FailureIsNotRemembered() {
+        SegmentRequestCoalescer coalescer = new SegmentRequestCoalescer();
+
+        try {
+            coalescer.get(4, userId -> {
+                throw new IllegalStateException("segment service down");
+            });
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // the leader sees its own failure
+        }
+
+        Assert.assertEquals(coalescer.get(4, userId -> "p1"), "p1");
+        Assert.assertEquals(coalescer.getInFlightCount(), 0);
+    }
+
+    @Test(groups = {"segment-coalescing"}, description = "An async loader that throws or returns null fails its lookup and is not remembered")
+    public void testGetAsync_LoaderFailsBeforeReturning() {
+        SegmentRequestCoalescer coalescer = new SegmentRequestCoalescer();
+
+        CompletableFuture<String> thrown = coalescer.getAsync(5, userId -> {
+            throw new IllegalStateException("segment service down");
+        });
+        Assert.assertTrue(thrown.isCompletedExceptionally());
+        Assert.assertEquals(coalescer.getInFlightCount(), 0);
+        Assert.assertEquals(coalescer.getAsync(5, userId -> CompletableFuture.completedFuture("p2")).join(), "p2");
+
+        CompletableFuture<String> missing = coalescer.getAsync(6, userId -> null);
+        Assert.assertTrue(missing.isCompletedExceptionally());
+        Assert.assertEquals(coalescer.getInFlightCount(), 0);
+        Assert.assertEquals(coalescer.get(6, userId -> "p3"), "p3");
+        Assert.assertEquals(coalescer.getLoadCount(), 4);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
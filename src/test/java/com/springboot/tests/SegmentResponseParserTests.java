@@ -0,0 +1,46 @@
+package com.springboot.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.service.SegmentResponseParser;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SegmentResponseParserTests {
+
+    private final SegmentResponseParser parser = new SegmentResponseParser(new ObjectMapper().getFactory());
+
+    @Test(groups = {"segment-parser"}, description = "Segment is read from user_segment bodies")
+    public void testReadSegment() throws IOException {
+        Assert.assertEquals(read("{\"segment\": \"p1\"}"), "p1");
+        Assert.assertEquals(read("{\"user_id\": 7, \"tags\": [\"a\", {\"b\": 1}], \"segment\": \"p3\"}"), "p3");
+        Assert.assertNull(read("{\"error\": \"User not found\"}"));
+        Assert.assertNull(read("{\"segment\": null}"));
+        Assert.assertNull(read("[]"));
+    }
+
+    @Test(groups = {"segment-parser"}, description = "Segments by user_id are read from bulk bodies")
+    public void testReadSegments() throws IOException {
+        Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "p1");
+        expected.put(22, "p2");
+        expected.put(5, null);
+        Assert.assertEquals(readAll("{\"count\": 3, \"segments\": {\"1\": \"p1\", \"22\": \"p2\", \"5\": null}}"), expected);
+        Assert.assertEquals(readAll("{\"segments\": {}}"), Collections.emptyMap());
+        Assert.assertEquals(readAll("[]"), Collections.emptyMap());
+    }
+
+    private Map<Integer, String> readAll(String body) throws IOException {
+        return parser.readSegments(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String read(String body) throws IOException {
+        return parser.readSegment(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}